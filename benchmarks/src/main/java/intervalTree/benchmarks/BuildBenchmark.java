@@ -0,0 +1,53 @@
+package intervalTree.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to build an {@link intervalTree.IntervalTree} from a list of intervals
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BuildBenchmark {
+
+	@Param({"DISJOINT", "NESTED", "WIDE"})
+	public Shape shape;
+
+	@Param({"INTEGER", "LONG", "DOUBLE", "BIG_INTEGER"})
+	public KeyType keyType;
+
+	@Param({"100000", "1000000"})
+	public int size;
+
+	private Fixture<?> fixture;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		long[] starts = new long[size];
+		long[] ends = new long[size];
+		shape.generate(new Random(42), starts, ends);
+		fixture = keyType.fixture(starts, ends, new long[0]);
+	}
+
+	@Benchmark
+	public Object build() {
+		return fixture.build();
+	}
+}
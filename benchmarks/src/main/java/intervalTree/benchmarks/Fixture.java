@@ -0,0 +1,85 @@
+package intervalTree.benchmarks;
+
+import intervalTree.FrozenIntervalTree;
+import intervalTree.Interval;
+import intervalTree.IntervalTree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * The Fixture class holds the intervals and query points of one benchmark run, boxed into
+ * their key type, so that the benchmark methods themselves need not be generic
+ */
+final class Fixture<N extends Number & Comparable<N>> {
+
+	/** the width of the range queried from each point */
+	private static final long RANGE_WIDTH = 1 << 12;
+
+	private final List<Interval<N, Integer>> intervals;
+	private final Supplier<N> supplier;
+	private final Object[] points;
+	private final Object[] rangeEnds;
+	private IntervalTree<N, Integer> tree;
+	private FrozenIntervalTree<N, Integer> frozen;
+
+	Fixture(long[] starts, long[] ends, long[] points, LongFunction<N> key, Supplier<N> supplier) {
+		this.supplier = supplier;
+		this.intervals = new ArrayList<>(starts.length);
+		for(int i = 0; i < starts.length; i++)
+			intervals.add(new Interval<>(key.apply(starts[i]), key.apply(ends[i]), i));
+		this.points = new Object[points.length];
+		this.rangeEnds = new Object[points.length];
+		for(int i = 0; i < points.length; i++) {
+			this.points[i] = key.apply(points[i]);
+			this.rangeEnds[i] = key.apply(points[i] + RANGE_WIDTH);
+		}
+	}
+
+	/**
+	 * @return a newly built tree over the intervals
+	 */
+	IntervalTree<N, Integer> build() {
+		return new IntervalTree<>(intervals, supplier);
+	}
+
+	/**
+	 * Build the trees queried by the query benchmarks
+	 */
+	void buildTrees() {
+		tree = build();
+		frozen = tree.freeze();
+	}
+
+	List<Integer> stab(int point) {
+		return tree.get(point(point));
+	}
+
+	List<Integer> stabFrozen(int point) {
+		return frozen.get(point(point));
+	}
+
+	int count(int point) {
+		return tree.count(point(point));
+	}
+
+	List<Integer> range(int point) {
+		return tree.get(point(point), rangeEnd(point));
+	}
+
+	List<Integer> rangeFrozen(int point) {
+		return frozen.get(point(point), rangeEnd(point));
+	}
+
+	@SuppressWarnings("unchecked")
+	private N point(int index) {
+		return (N) points[index];
+	}
+
+	@SuppressWarnings("unchecked")
+	private N rangeEnd(int index) {
+		return (N) rangeEnds[index];
+	}
+}
@@ -0,0 +1,42 @@
+package intervalTree.benchmarks;
+
+import java.math.BigInteger;
+
+/**
+ * The KeyType enum is the Number type the benchmarked trees are keyed by
+ */
+public enum KeyType {
+
+	INTEGER {
+		@Override
+		Fixture<?> fixture(long[] starts, long[] ends, long[] points) {
+			return new Fixture<>(starts, ends, points, value -> (int) value, () -> 0);
+		}
+	},
+
+	LONG {
+		@Override
+		Fixture<?> fixture(long[] starts, long[] ends, long[] points) {
+			return new Fixture<>(starts, ends, points, value -> value, () -> 0L);
+		}
+	},
+
+	DOUBLE {
+		@Override
+		Fixture<?> fixture(long[] starts, long[] ends, long[] points) {
+			return new Fixture<>(starts, ends, points, value -> (double) value, () -> 0.0);
+		}
+	},
+
+	BIG_INTEGER {
+		@Override
+		Fixture<?> fixture(long[] starts, long[] ends, long[] points) {
+			return new Fixture<>(starts, ends, points, BigInteger::valueOf, () -> BigInteger.ZERO);
+		}
+	};
+
+	/**
+	 * Box the generated endpoints and query points into this key type
+	 */
+	abstract Fixture<?> fixture(long[] starts, long[] ends, long[] points);
+}
@@ -0,0 +1,98 @@
+package intervalTree.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures stabbing and range queries against a built {@link intervalTree.IntervalTree} and its
+ * {@link intervalTree.FrozenIntervalTree}, as throughput and as sampled latency percentiles
+ *
+ * Run with -prof gc to see the allocation rate per query
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class QueryBenchmark {
+
+	/** a power of two, so the next point is picked with a mask */
+	private static final int POINTS = 1 << 12;
+
+	@Param({"DISJOINT", "NESTED", "WIDE"})
+	public Shape shape;
+
+	@Param({"INTEGER", "LONG", "DOUBLE", "BIG_INTEGER"})
+	public KeyType keyType;
+
+	@Param({"10000", "1000000"})
+	public int size;
+
+	private Fixture<?> fixture;
+
+	@State(Scope.Thread)
+	public static class Cursor {
+		private int next;
+
+		int next() {
+			return next++ & (POINTS - 1);
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(42);
+		long[] starts = new long[size];
+		long[] ends = new long[size];
+		shape.generate(random, starts, ends);
+
+		long span = 0;
+		for(long end : ends)
+			span = Math.max(span, end + 1);
+		long[] points = new long[POINTS];
+		for(int i = 0; i < POINTS; i++)
+			points[i] = (long) (random.nextDouble() * span);
+
+		fixture = keyType.fixture(starts, ends, points);
+		fixture.buildTrees();
+	}
+
+	@Benchmark
+	public Object stab(Cursor cursor) {
+		return fixture.stab(cursor.next());
+	}
+
+	@Benchmark
+	public Object stabFrozen(Cursor cursor) {
+		return fixture.stabFrozen(cursor.next());
+	}
+
+	@Benchmark
+	public int count(Cursor cursor) {
+		return fixture.count(cursor.next());
+	}
+
+	@Benchmark
+	public Object range(Cursor cursor) {
+		return fixture.range(cursor.next());
+	}
+
+	@Benchmark
+	public Object rangeFrozen(Cursor cursor) {
+		return fixture.rangeFrozen(cursor.next());
+	}
+}
@@ -0,0 +1,74 @@
+package intervalTree.benchmarks;
+
+import java.util.Random;
+
+/**
+ * The Shape enum generates the interval layouts the benchmarks run against, all inside
+ * [0, 2^30) so that every key type can hold them.
+ */
+public enum Shape {
+
+	/**
+	 * Non-overlapping blocks with power-of-two sizes and small gaps, like a table of IP blocks
+	 */
+	DISJOINT {
+		@Override
+		void generate(Random random, long[] starts, long[] ends) {
+			long cursor = 0;
+			for(int i = 0; i < starts.length; i++) {
+				long blockSize = 1L << (2 + random.nextInt(9));
+				starts[i] = cursor;
+				ends[i] = cursor + blockSize - 1;
+				cursor += blockSize + random.nextInt(64);
+			}
+		}
+	},
+
+	/**
+	 * Groups of sixteen intervals nested inside each other around random points, so that
+	 * every query inside a group matches many intervals
+	 */
+	NESTED {
+		@Override
+		void generate(Random random, long[] starts, long[] ends) {
+			long center = 0;
+			for(int i = 0; i < starts.length; i++) {
+				int level = i % 16;
+				if(level == 0)
+					center = (1L << 16) + random.nextInt(DOMAIN - (1 << 17));
+				long halfWidth = 1L << (16 - level);
+				starts[i] = center - halfWidth;
+				ends[i] = center + halfWidth;
+			}
+		}
+	},
+
+	/**
+	 * Mostly short intervals spread over the whole domain, plus one in a hundred that covers
+	 * most of it, which all end up stored at the root
+	 */
+	WIDE {
+		@Override
+		void generate(Random random, long[] starts, long[] ends) {
+			for(int i = 0; i < starts.length; i++) {
+				if(i % 100 == 0) {
+					starts[i] = random.nextInt(DOMAIN / 4);
+					ends[i] = DOMAIN - 1 - random.nextInt(DOMAIN / 4);
+				} else {
+					starts[i] = random.nextInt(DOMAIN - 64);
+					ends[i] = starts[i] + random.nextInt(64);
+				}
+			}
+		}
+	};
+
+	static final int DOMAIN = 1 << 30;
+
+	/**
+	 * Fill the endpoint arrays with one interval per index
+	 * @param random the source of randomness, seeded by the caller for repeatable runs
+	 * @param starts receives the start of every interval
+	 * @param ends	 receives the end of every interval
+	 */
+	abstract void generate(Random random, long[] starts, long[] ends);
+}
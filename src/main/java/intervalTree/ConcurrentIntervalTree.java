@@ -0,0 +1,582 @@
+package intervalTree;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A ConcurrentIntervalTree is a thread-safe {@link IntervalTree} for read-heavy workloads.
+ *
+ * Readers query an immutable snapshot of the tree through a volatile reference and never
+ * take a lock. Writers stage their changes, which stay invisible to readers until
+ * {@link #publish()} builds a new snapshot from every staged change and swaps it in
+ * atomically. Batching many changes into one publish keeps rebuild cost down.
+ *
+ * Given a rebuild executor, the tree publishes by itself: every staged change schedules
+ * a rebuild on the executor, changes arriving during a rebuild are coalesced into the
+ * next one, and queries keep being served from the previous snapshot meanwhile. A failed
+ * background rebuild is not retried until the next change is staged or publish is called;
+ * use {@link #status()} to watch staleness, rebuild cost and failures.
+ *
+ * @param <Type> the type of objects to associate
+ */
+public class ConcurrentIntervalTree<N extends Number & Comparable<N>, Type> {
+
+	private final Object writeLock = new Object();
+	private final Object buildLock = new Object();
+	private final List<Interval<N, Type>> intervalList;
+	private final Supplier<N> supplier;
+	private final Executor rebuildExecutor;
+	private final AtomicBoolean rebuildScheduled;
+	private long changeCount;
+	/** when the oldest unpublished change was staged, if pendingTimed; a System.nanoTime reading, so only compared by difference */
+	private long oldestPendingNanos;
+	private boolean pendingTimed;
+	/** when the oldest change in the snapshot being built was staged, if buildingTimed */
+	private long oldestBuildingNanos;
+	private boolean buildingTimed;
+	private volatile boolean rebuilding;
+	private volatile Throwable lastFailure;
+	private volatile ForkJoinPool buildPool;
+	private volatile TreeMetrics metrics;
+	private volatile StabCache<N, Type> cache;
+	private volatile Snapshot<N, Type> snapshot;
+
+	/**
+	 * Instantiate a new interval tree with no intervals
+	 * @param supplier a lambda initializing a type N number to zero
+	 */
+	public ConcurrentIntervalTree(Supplier<N> supplier) {
+		this(supplier, null);
+	}
+
+	/**
+	 * Instantiate a new interval tree with no intervals, which rebuilds in the background
+	 * @param supplier a lambda initializing a type N number to zero
+	 * @param rebuildExecutor the executor to publish staged changes on, or null to only publish on demand
+	 */
+	public ConcurrentIntervalTree(Supplier<N> supplier, Executor rebuildExecutor) {
+		this.intervalList = new ArrayList<>();
+		this.supplier = supplier;
+		this.rebuildExecutor = rebuildExecutor;
+		this.rebuildScheduled = new AtomicBoolean(false);
+		this.changeCount = 0;
+		this.snapshot = new Snapshot<>(new IntervalNode<>(supplier), 0, 0, 0, 0);
+	}
+
+	/**
+	 * Instantiate an interval tree with a preset list of intervals, published immediately
+	 * @param intervalList the list of intervals to use
+	 * @param supplier a lambda initializing a type N number to zero
+	 */
+	public ConcurrentIntervalTree(List<Interval<N, Type>> intervalList, Supplier<N> supplier) {
+		this(supplier);
+		addIntervals(intervalList);
+		publish();
+	}
+
+	/**
+	 * Perform a stabbing query against the last published snapshot, returning the associated data
+	 * @param queryValue the number to stab
+	 * @return	   the data associated with all intervals that contain queryValue
+	 */
+	public List<Type> get(N queryValue) {
+		StabCache<N, Type> cache = this.cache;
+		if(cache == null) {
+			List<Type> result = new ArrayList<>();
+			get(queryValue, result);
+			return result;
+		}
+		Snapshot<N, Type> published = snapshot;
+		List<Type> result = cache.get(queryValue, published.version);
+		if(result == null) {
+			result = new ArrayList<>();
+			TreeMetrics.stab(metrics, published.head, queryValue, result, (interval, data) -> data.add(interval.getData()));
+			result = cache.put(queryValue, published.version, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Perform a stabbing query against the last published snapshot, appending the associated data to a caller-supplied collection
+	 * @param queryValue the number to stab
+	 * @param result	 receives the data associated with all intervals that contain queryValue
+	 */
+	public void get(N queryValue, Collection<? super Type> result) {
+		TreeMetrics.stab(metrics, snapshot.head, queryValue, result, (interval, data) -> data.add(interval.getData()));
+	}
+
+	/**
+	 * Perform a stabbing query against the last published snapshot, returning the interval objects
+	 * @param value the value to stab
+	 * @return	   all intervals that contain value
+	 */
+	public List<Interval<N, Type>> getIntervals(N value) {
+		List<Interval<N, Type>> result = new ArrayList<>();
+		getIntervals(value, result);
+		return result;
+	}
+
+	/**
+	 * Perform a stabbing query against the last published snapshot, appending the interval objects to a caller-supplied collection
+	 * @param value  the value to stab
+	 * @param result receives all intervals that contain value
+	 */
+	public void getIntervals(N value, Collection<? super Interval<N, Type>> result) {
+		TreeMetrics.stab(metrics, snapshot.head, value, result, (interval, collection) -> collection.add(interval));
+	}
+
+	/**
+	 * Perform a stabbing query against the last published snapshot, passing every interval object to a consumer
+	 * @param value	   the value to stab
+	 * @param consumer receives all intervals that contain value
+	 */
+	public void stab(N value, Consumer<? super Interval<N, Type>> consumer) {
+		TreeMetrics.stab(metrics, snapshot.head, value, consumer, (interval, target) -> target.accept(interval));
+	}
+
+	/**
+	 * Perform a stabbing query against the last published snapshot, passing every interval object to a visitor
+	 * Passing state through context lets the visitor be a non-capturing lambda, so the query allocates nothing
+	 * @param value	  the value to stab
+	 * @param context passed to the visitor with every interval
+	 * @param visitor receives all intervals that contain value, along with context
+	 */
+	public <C> void stab(N value, C context, BiConsumer<? super Interval<N, Type>, ? super C> visitor) {
+		TreeMetrics.stab(metrics, snapshot.head, value, context, visitor);
+	}
+
+	/**
+	 * Perform an interval query against the last published snapshot, returning the associated data
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	the data associated with all intervals that intersect target
+	 */
+	public List<Type> get(N start, N end) {
+		List<Type> result = new ArrayList<>();
+		get(start, end, result);
+		return result;
+	}
+
+	/**
+	 * Perform an interval query against the last published snapshot, appending the associated data to a caller-supplied collection
+	 * @param start	 the start of the interval to check
+	 * @param end	 the end of the interval to check
+	 * @param result receives the data associated with all intervals that intersect target
+	 */
+	public void get(N start, N end, Collection<? super Type> result) {
+		if ( start.compareTo(end) > 0) {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+		TreeMetrics.query(metrics, snapshot.head, start, end, result, (interval, data) -> data.add(interval.getData()));
+	}
+
+	/**
+	 * Perform an interval query against the last published snapshot, returning the interval objects
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	all intervals that intersect target
+	 */
+	public List<Interval<N, Type>> getIntervals(N start, N end) {
+		List<Interval<N, Type>> result = new ArrayList<>();
+		getIntervals(start, end, result);
+		return result;
+	}
+
+	/**
+	 * Perform an interval query against the last published snapshot, appending the interval objects to a caller-supplied collection
+	 * @param start	 the start of the interval to check
+	 * @param end	 the end of the interval to check
+	 * @param result receives all intervals that intersect target
+	 */
+	public void getIntervals(N start, N end, Collection<? super Interval<N, Type>> result) {
+		TreeMetrics.query(metrics, snapshot.head, start, end, result, (interval, collection) -> collection.add(interval));
+	}
+
+	/**
+	 * Perform an interval query against the last published snapshot, passing every interval object to a consumer
+	 * @param start	   the start of the interval to check
+	 * @param end	   the end of the interval to check
+	 * @param consumer receives all intervals that intersect target
+	 */
+	public void query(N start, N end, Consumer<? super Interval<N, Type>> consumer) {
+		TreeMetrics.query(metrics, snapshot.head, start, end, consumer, (interval, target) -> target.accept(interval));
+	}
+
+	/**
+	 * Perform an interval query against the last published snapshot, passing every interval object to a visitor
+	 * Passing state through context lets the visitor be a non-capturing lambda, so the query allocates nothing
+	 * @param start	  the start of the interval to check
+	 * @param end	  the end of the interval to check
+	 * @param context passed to the visitor with every interval
+	 * @param visitor receives all intervals that intersect target, along with context
+	 */
+	public <C> void query(N start, N end, C context, BiConsumer<? super Interval<N, Type>, ? super C> visitor) {
+		TreeMetrics.query(metrics, snapshot.head, start, end, context, visitor);
+	}
+
+	/**
+	 * Perform an interval query against the last published snapshot, returning the associated data of at most limit intervals
+	 * Stops searching the tree as soon as limit intervals have been found
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @param limit the most results to return
+	 * @return	  	the data associated with the first limit intervals that intersect target
+	 */
+	public List<Type> get(N start, N end, int limit) {
+		if ( start.compareTo(end) > 0) {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+		List<Type> result = new ArrayList<>(Math.min(limit, 16));
+		if(limit > 0)
+			snapshot.head.query(start, end, limit, result, (interval, data) -> data.add(interval.getData()));
+		return result;
+	}
+
+	/**
+	 * Perform a stabbing query lazily against the last published snapshot, as a stream of the interval objects
+	 * The snapshot is only walked as far as the stream is consumed, and parallel streams split it by subtree
+	 * @param value the value to stab
+	 * @return	   a stream of all intervals that contain value
+	 */
+	public Stream<Interval<N, Type>> streamStab(N value) {
+		Snapshot<N, Type> published = snapshot;
+		return StreamSupport.stream(new QuerySpliterator<>(published.head, value, value, published.size), false);
+	}
+
+	/**
+	 * Perform an interval query lazily against the last published snapshot, as a stream of the interval objects
+	 * The snapshot is only walked as far as the stream is consumed, and parallel streams split it by subtree
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	a stream of all intervals that intersect target
+	 */
+	public Stream<Interval<N, Type>> stream(N start, N end) {
+		if ( start.compareTo(end) > 0) {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+		Snapshot<N, Type> published = snapshot;
+		return StreamSupport.stream(new QuerySpliterator<>(published.head, start, end, published.size), false);
+	}
+
+	/**
+	 * Determine whether any interval in the last published snapshot contains a value
+	 * @param value the value to stab
+	 * @return	   true if at least one interval contains value
+	 */
+	public boolean containsAny(N value) {
+		return snapshot.head.findFirst(value) != null;
+	}
+
+	/**
+	 * Perform a stabbing query against the last published snapshot for only the first interval get would return
+	 * @param value the value to stab
+	 * @return	   the data associated with the first interval that contains value, or null if there is none
+	 */
+	public Type findFirst(N value) {
+		Interval<N, Type> interval = findFirstInterval(value);
+		return interval != null ? interval.getData() : null;
+	}
+
+	/**
+	 * Perform a stabbing query against the last published snapshot for only the first interval getIntervals would return
+	 * @param value the value to stab
+	 * @return	   the first interval that contains value, or null if there is none
+	 */
+	public Interval<N, Type> findFirstInterval(N value) {
+		return snapshot.head.findFirst(value);
+	}
+
+	/**
+	 * Count the intervals in the last published snapshot that contain a value without collecting them
+	 * @param value the value to stab
+	 * @return	   the number of intervals that contain value
+	 */
+	public int count(N value) {
+		return snapshot.head.count(value);
+	}
+
+	/**
+	 * Count the intervals in the last published snapshot that intersect a range without collecting them
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	the number of intervals that intersect target
+	 */
+	public int count(N start, N end) {
+		if ( start.compareTo(end) > 0) {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+		return snapshot.head.count(start, end);
+	}
+
+	/**
+	 * Stage an interval object for the next snapshot
+	 * Will not be visible to queries until the next call to publish
+	 * @param interval the interval object to add
+	 */
+	public void addInterval(Interval<N, Type> interval) {
+		if ( interval.getEnd().compareTo(interval.getStart()) >= 0) {
+			synchronized(writeLock) {
+				intervalList.add(interval);
+				staged(1);
+			}
+			scheduleRebuild();
+		} else {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+	}
+
+	/**
+	 * Stage an interval object for the next snapshot
+	 * Will not be visible to queries until the next call to publish
+	 * @param begin the beginning of the interval
+	 * @param end	the end of the interval
+	 * @param data	the data to associate
+	 */
+	public void addInterval(N begin, N end, Type data) {
+		addInterval(new Interval<>(begin, end, data));
+	}
+
+	/**
+	 * Stage a batch of interval objects for the next snapshot
+	 * Will not be visible to queries until the next call to publish
+	 * @param intervals the interval objects to add
+	 */
+	public void addIntervals(Collection<Interval<N, Type>> intervals) {
+		for(Interval<N, Type> interval : intervals) {
+			if ( interval.getEnd().compareTo(interval.getStart()) < 0) {
+				throw new IllegalArgumentException("beginning of range must be less than end");
+			}
+		}
+		synchronized(writeLock) {
+			intervalList.addAll(intervals);
+			staged(intervals.size());
+		}
+		scheduleRebuild();
+	}
+
+	/**
+	 * Stage the removal of one interval equal to the given interval object
+	 * Will not be visible to queries until the next call to publish
+	 * @param interval the interval object to remove
+	 * @return true if the staged list contained the interval
+	 */
+	public boolean removeInterval(Interval<N, Type> interval) {
+		synchronized(writeLock) {
+			if(!intervalList.remove(interval))
+				return false;
+			staged(1);
+		}
+		scheduleRebuild();
+		return true;
+	}
+
+	/**
+	 * Build snapshots in parallel on a fork/join pool from the next publish on
+	 * Snapshots built are equal to those built on the publishing thread
+	 * @param buildPool the pool to build on, or null to build on the publishing thread
+	 */
+	public void setBuildPool(ForkJoinPool buildPool) {
+		this.buildPool = buildPool;
+	}
+
+	/**
+	 * Record the cost of stabbing and range queries, and of publishing snapshots, from now on
+	 * @param metrics the metrics to record to, or null to stop recording
+	 */
+	public void setMetrics(TreeMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * @return the metrics queries and publishes are recorded to, or null if none are
+	 */
+	public TreeMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Answer repeated stabbing queries through get(N) from a cache from now on
+	 * Entries are invalidated by every publish. While a cache is attached, get(N) returns
+	 * unmodifiable lists, which may be shared between callers
+	 * A cache serves one tree at a time, and is emptied when attached
+	 * @param cache the cache to use, or null to query the snapshot every time
+	 * @throws IllegalStateException if the cache is attached to another tree
+	 */
+	public void setCache(StabCache<N, Type> cache) {
+		synchronized(writeLock) {
+			if(cache != null)
+				cache.attach(this);
+			if(this.cache != null && this.cache != cache)
+				this.cache.detach(this);
+			this.cache = cache;
+		}
+	}
+
+	/**
+	 * @return the cache stabbing queries are answered from, or null if there is none
+	 */
+	public StabCache<N, Type> getCache() {
+		return cache;
+	}
+
+	/**
+	 * Build a new snapshot from every staged change and make it visible to queries
+	 * Will not run if there are no staged changes. Writers are not blocked while the snapshot builds,
+	 * and changes staged meanwhile are left for the next publish
+	 */
+	public void publish() {
+		synchronized(buildLock) {
+			List<Interval<N, Type>> staged;
+			long changes;
+			synchronized(writeLock) {
+				changes = changeCount;
+				if(changes == snapshot.changes)
+					return;
+				staged = new ArrayList<>(intervalList);
+				oldestBuildingNanos = oldestPendingNanos;
+				buildingTimed = pendingTimed;
+				pendingTimed = false;
+			}
+
+			rebuilding = true;
+			try {
+				long startNanos = System.nanoTime();
+				ForkJoinPool pool = buildPool;
+				IntervalNode<N, Type> head = staged.isEmpty() ? new IntervalNode<>(supplier)
+						: pool == null ? new IntervalNode<>(staged, supplier) : new IntervalNode<>(staged, supplier, pool);
+				long buildNanos = System.nanoTime() - startNanos;
+				snapshot = new Snapshot<>(head, staged.size(), snapshot.version + 1, changes, buildNanos);
+				TreeMetrics metrics = this.metrics;
+				if(metrics != null)
+					metrics.recordRebuild(buildNanos, head);
+				lastFailure = null;
+			} catch (RuntimeException | Error e) {
+				lastFailure = e;
+				synchronized(writeLock) {
+					// the changes that failed to build are pending again, and older than any staged since
+					if(buildingTimed && (!pendingTimed || oldestBuildingNanos - oldestPendingNanos < 0)) {
+						oldestPendingNanos = oldestBuildingNanos;
+						pendingTimed = true;
+					}
+				}
+				throw e;
+			} finally {
+				synchronized(writeLock) {
+					buildingTimed = false;
+				}
+				rebuilding = false;
+			}
+		}
+	}
+
+	/**
+	 * Determine whether the published snapshot reflects every staged change
+	 * @return true if no changes have been staged since the last publish
+	 */
+	public boolean inSync() {
+		synchronized(writeLock) {
+			return changeCount == snapshot.changes;
+		}
+	}
+
+	/**
+	 * @return the staleness, rebuild cost and pending-change count of the tree at this moment
+	 */
+	public RebuildStatus status() {
+		Snapshot<N, Type> published = snapshot;
+		synchronized(writeLock) {
+			boolean timed = pendingTimed || buildingTimed;
+			long oldest = oldestPendingNanos;
+			if(buildingTimed && (!pendingTimed || oldestBuildingNanos - oldest < 0))
+				oldest = oldestBuildingNanos;
+			long pending = changeCount - published.changes;
+			long staleness = pending == 0 || !timed ? 0 : System.nanoTime() - oldest;
+			return new RebuildStatus(pending, staleness, rebuilding, published.version, published.buildNanos, lastFailure);
+		}
+	}
+
+	/**
+	 * @return the number of snapshots published so far, which changes whenever query results may change
+	 */
+	public long version() {
+		return snapshot.version;
+	}
+
+	/**
+	 * @return the number of entries in the published snapshot
+	 */
+	public int currentSize() {
+		return snapshot.size;
+	}
+
+	/**
+	 * @return the number of entries in the staged interval list, equal to currentSize() if inSync()
+	 */
+	public int listSize() {
+		synchronized(writeLock) {
+			return intervalList.size();
+		}
+	}
+
+	/**
+	 * Record changes staged under the write lock
+	 */
+	private void staged(int changes) {
+		if(changes > 0 && !pendingTimed) {
+			oldestPendingNanos = System.nanoTime();
+			pendingTimed = true;
+		}
+		changeCount += changes;
+	}
+
+	/**
+	 * Schedule a background publish, unless one is already waiting to run
+	 */
+	private void scheduleRebuild() {
+		if(rebuildExecutor == null || !rebuildScheduled.compareAndSet(false, true))
+			return;
+		try {
+			rebuildExecutor.execute(() -> {
+				// cleared before building, so changes staged during the build schedule another one
+				rebuildScheduled.set(false);
+				try {
+					publish();
+				} catch (RuntimeException e) {
+					// kept in lastFailure; not retried until the next change or publish
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			rebuildScheduled.set(false);
+			throw e;
+		}
+	}
+
+	/**
+	 * An immutable built tree, published to readers as a whole
+	 */
+	private static final class Snapshot<N extends Number & Comparable<N>, Type> {
+		private final IntervalNode<N, Type> head;
+		private final int size;
+		private final long version;
+		private final long changes;
+		private final long buildNanos;
+
+		private Snapshot(IntervalNode<N, Type> head, int size, long version, long changes, long buildNanos) {
+			this.head = head;
+			this.size = size;
+			this.version = version;
+			this.changes = changes;
+			this.buildNanos = buildNanos;
+		}
+	}
+}
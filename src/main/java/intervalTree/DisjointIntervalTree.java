@@ -0,0 +1,244 @@
+package intervalTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A DisjointIntervalTree answers the same queries as an {@link IntervalTree}, for
+ * the common case where no two intervals overlap, such as a table of IP blocks.
+ *
+ * Sorted by start, disjoint intervals are also sorted by end, so the intervals are
+ * kept as plain sorted arrays of starts, ends and data. A stabbing query is a single
+ * binary search, and an interval query is two binary searches and a contiguous slice.
+ *
+ * Intervals are inclusive, so two intervals sharing an endpoint overlap.
+ *
+ * @param <Type> the type of objects to associate
+ */
+public class DisjointIntervalTree<N extends Number & Comparable<N>, Type> {
+
+	private final Object[] starts;
+	private final Object[] ends;
+	private final Object[] data;
+
+	/**
+	 * Instantiate an interval tree from a list of non-overlapping intervals
+	 * @param intervalList the list of intervals to use, in any order
+	 * @throws IllegalArgumentException if any two intervals overlap
+	 */
+	public DisjointIntervalTree(List<Interval<N, Type>> intervalList) {
+		this(intervalList, true);
+	}
+
+	/**
+	 * Instantiate an interval tree from a list of non-overlapping intervals
+	 * @param intervalList the list of intervals to use, in any order
+	 * @param validate	   false to trust that the intervals are disjoint and skip checking;
+	 *					   queries on overlapping intervals then return undefined results
+	 * @throws IllegalArgumentException if validate is set and any two intervals overlap
+	 */
+	public DisjointIntervalTree(List<Interval<N, Type>> intervalList, boolean validate) {
+		List<Interval<N, Type>> sorted = new ArrayList<>(intervalList);
+		Collections.sort(sorted);
+
+		starts = new Object[sorted.size()];
+		ends = new Object[sorted.size()];
+		data = new Object[sorted.size()];
+		for(int i = 0; i < sorted.size(); i++) {
+			Interval<N, Type> interval = sorted.get(i);
+			if ( interval.getEnd().compareTo(interval.getStart()) < 0) {
+				throw new IllegalArgumentException("beginning of range must be less than end");
+			}
+			if (validate && i > 0 && interval.getStart().compareTo(endAt(i - 1)) <= 0) {
+				throw new IllegalArgumentException("intervals must not overlap");
+			}
+			starts[i] = interval.getStart();
+			ends[i] = interval.getEnd();
+			data[i] = interval.getData();
+		}
+	}
+
+	/**
+	 * Perform a stabbing query, returning the associated data
+	 * @param queryValue the number to stab
+	 * @return	   the data associated with the interval that contains queryValue, if there is one
+	 */
+	public List<Type> get(N queryValue) {
+		int index = indexOf(queryValue);
+		return index < 0 ? new ArrayList<>() : new ArrayList<>(Collections.singletonList(dataAt(index)));
+	}
+
+	/**
+	 * Perform a stabbing query, returning the interval objects
+	 * @param value the value to stab
+	 * @return	   the interval that contains value, if there is one
+	 */
+	public List<Interval<N, Type>> getIntervals(N value) {
+		int index = indexOf(value);
+		return index < 0 ? new ArrayList<>() : new ArrayList<>(Collections.singletonList(intervalAt(index)));
+	}
+
+	/**
+	 * Perform a stabbing query for the only interval that can contain a value
+	 * @param value the value to stab
+	 * @return	   the data associated with the interval that contains value, or null if there is none
+	 */
+	public Type findFirst(N value) {
+		int index = indexOf(value);
+		return index < 0 ? null : dataAt(index);
+	}
+
+	/**
+	 * Determine whether any interval contains a value
+	 * @param value the value to stab
+	 * @return	   true if an interval contains value
+	 */
+	public boolean containsAny(N value) {
+		return indexOf(value) >= 0;
+	}
+
+	/**
+	 * Perform an interval query, returning the associated data
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	the data associated with all intervals that intersect target, ordered by start
+	 */
+	public List<Type> get(N start, N end) {
+		if ( start.compareTo(end) > 0) {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+		int from = firstEndingAtOrAfter(start);
+		int to = lastStartingAtOrBefore(end) + 1;
+		List<Type> result = new ArrayList<>(Math.max(to - from, 0));
+		for(int i = from; i < to; i++)
+			result.add(dataAt(i));
+		return result;
+	}
+
+	/**
+	 * Perform an interval query, returning the interval objects
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	all intervals that intersect target, ordered by start
+	 */
+	public List<Interval<N, Type>> getIntervals(N start, N end) {
+		int from = firstEndingAtOrAfter(start);
+		int to = lastStartingAtOrBefore(end) + 1;
+		List<Interval<N, Type>> result = new ArrayList<>(Math.max(to - from, 0));
+		for(int i = from; i < to; i++)
+			result.add(intervalAt(i));
+		return result;
+	}
+
+	/**
+	 * Count the intervals that intersect a range without collecting them
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	the number of intervals that intersect target
+	 */
+	public int count(N start, N end) {
+		if ( start.compareTo(end) > 0) {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+		return Math.max(lastStartingAtOrBefore(end) + 1 - firstEndingAtOrAfter(start), 0);
+	}
+
+	/**
+	 * @return the number of intervals in the tree
+	 */
+	public int size() {
+		return starts.length;
+	}
+
+	/**
+	 * @return the index of the interval containing value, or -1 if there is none
+	 */
+	private int indexOf(N value) {
+		int index = lastStartingAtOrBefore(value);
+		return index >= 0 && endAt(index).compareTo(value) >= 0 ? index : -1;
+	}
+
+	/**
+	 * @return the index of the last interval starting at or before value, or -1 if there is none
+	 */
+	private int lastStartingAtOrBefore(N value) {
+		int low = 0;
+		int high = starts.length;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(startAt(middle).compareTo(value) <= 0)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low - 1;
+	}
+
+	/**
+	 * @return the index of the first interval ending at or after value, or size() if there is none
+	 */
+	private int firstEndingAtOrAfter(N value) {
+		int low = 0;
+		int high = ends.length;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(endAt(middle).compareTo(value) < 0)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	@SuppressWarnings("unchecked")
+	private N startAt(int index) {
+		return (N) starts[index];
+	}
+
+	@SuppressWarnings("unchecked")
+	private N endAt(int index) {
+		return (N) ends[index];
+	}
+
+	@SuppressWarnings("unchecked")
+	private Type dataAt(int index) {
+		return (Type) data[index];
+	}
+
+	private Interval<N, Type> intervalAt(int index) {
+		return new Interval<>(startAt(index), endAt(index), dataAt(index));
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < starts.length; i++)
+			sb.append("(").append(starts[i]).append(",").append(ends[i]).append(",").append(data[i]).append(")\n");
+		return sb.toString();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+
+		DisjointIntervalTree<?, ?> that = (DisjointIntervalTree<?, ?>) o;
+
+		return Arrays.equals(starts, that.starts) && Arrays.equals(ends, that.ends) && Arrays.equals(data, that.data);
+	}
+
+
+	@Override
+	public int hashCode() {
+		int result = Arrays.hashCode(starts);
+		result = 31 * result + Arrays.hashCode(ends);
+		result = 31 * result + Arrays.hashCode(data);
+		return result;
+	}
+}
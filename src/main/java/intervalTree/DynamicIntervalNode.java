@@ -0,0 +1,214 @@
+package intervalTree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The DynamicIntervalNode class is one node of the AVL tree behind a {@link DynamicIntervalTree}.
+ *
+ * Nodes are ordered by interval start and then end, and every interval with the same start and
+ * end shares one node. Each node is augmented with the greatest end found in its subtree, which
+ * lets queries skip every subtree that ends before the query begins.
+ */
+public class DynamicIntervalNode<N extends Number & Comparable<N>, Type> {
+
+	private final N start;
+	private final N end;
+	private final List<Interval<N, Type>> intervals;
+	private N maxEnd;
+	private int height;
+	private DynamicIntervalNode<N, Type> leftNode;
+	private DynamicIntervalNode<N, Type> rightNode;
+
+	DynamicIntervalNode(Interval<N, Type> interval) {
+		this.start = interval.getStart();
+		this.end = interval.getEnd();
+		this.intervals = new ArrayList<>(1);
+		this.intervals.add(interval);
+		this.maxEnd = end;
+		this.height = 1;
+	}
+
+	/**
+	 * Insert an interval into the subtree rooted at node
+	 * @param node	   the root of the subtree, may be null
+	 * @param interval the interval to insert
+	 * @return		   the new root of the subtree
+	 */
+	static <N extends Number & Comparable<N>, Type> DynamicIntervalNode<N, Type> insert(DynamicIntervalNode<N, Type> node, Interval<N, Type> interval) {
+		if(node == null)
+			return new DynamicIntervalNode<>(interval);
+
+		int comparison = node.compareTo(interval);
+		if(comparison > 0)
+			node.leftNode = insert(node.leftNode, interval);
+		else if(comparison < 0)
+			node.rightNode = insert(node.rightNode, interval);
+		else {
+			node.intervals.add(interval);
+			return node;
+		}
+		return rebalance(node);
+	}
+
+	/**
+	 * Remove one interval equal to the given interval from the subtree rooted at node
+	 * @param node	   the root of the subtree, may be null
+	 * @param interval the interval to remove
+	 * @param removed  set to true in removed[0] if an interval was removed
+	 * @return		   the new root of the subtree
+	 */
+	static <N extends Number & Comparable<N>, Type> DynamicIntervalNode<N, Type> remove(DynamicIntervalNode<N, Type> node, Interval<N, Type> interval,
+			boolean[] removed) {
+		if(node == null)
+			return null;
+
+		int comparison = node.compareTo(interval);
+		if(comparison > 0)
+			node.leftNode = remove(node.leftNode, interval, removed);
+		else if(comparison < 0)
+			node.rightNode = remove(node.rightNode, interval, removed);
+		else {
+			if(!node.intervals.remove(interval))
+				return node;
+			removed[0] = true;
+			if(!node.intervals.isEmpty())
+				return node;
+			if(node.leftNode == null)
+				return node.rightNode;
+			if(node.rightNode == null)
+				return node.leftNode;
+
+			DynamicIntervalNode<N, Type> successor = node.rightNode;
+			while(successor.leftNode != null)
+				successor = successor.leftNode;
+			successor.rightNode = removeMin(node.rightNode);
+			successor.leftNode = node.leftNode;
+			return rebalance(successor);
+		}
+		return rebalance(node);
+	}
+
+	private static <N extends Number & Comparable<N>, Type> DynamicIntervalNode<N, Type> removeMin(DynamicIntervalNode<N, Type> node) {
+		if(node.leftNode == null)
+			return node.rightNode;
+		node.leftNode = removeMin(node.leftNode);
+		return rebalance(node);
+	}
+
+	/**
+	 * Perform a stabbing query on the subtree
+	 * @param queryValue the value to query at
+	 * @param result	 receives all intervals containing queryValue, ordered by start
+	 */
+	void stab(N queryValue, List<Interval<N, Type>> result) {
+		if(maxEnd.compareTo(queryValue) < 0)
+			return;
+		if(leftNode != null)
+			leftNode.stab(queryValue, result);
+		if(start.compareTo(queryValue) > 0)
+			return;
+		if(end.compareTo(queryValue) >= 0)
+			result.addAll(intervals);
+		if(rightNode != null)
+			rightNode.stab(queryValue, result);
+	}
+
+	/**
+	 * Perform an interval intersection query on the subtree
+	 * @param target the interval to intersect
+	 * @param result receives all intervals intersecting target, ordered by start
+	 */
+	void query(Interval<N, ?> target, List<Interval<N, Type>> result) {
+		if(maxEnd.compareTo(target.getStart()) < 0)
+			return;
+		if(leftNode != null)
+			leftNode.query(target, result);
+		if(start.compareTo(target.getEnd()) > 0)
+			return;
+		if(end.compareTo(target.getStart()) >= 0)
+			result.addAll(intervals);
+		if(rightNode != null)
+			rightNode.query(target, result);
+	}
+
+	N getMaxEnd() {
+		return maxEnd;
+	}
+
+	int getHeight() {
+		return height;
+	}
+
+	DynamicIntervalNode<N, Type> getLeft() {
+		return leftNode;
+	}
+
+	DynamicIntervalNode<N, Type> getRight() {
+		return rightNode;
+	}
+
+	private int compareTo(Interval<N, ?> interval) {
+		int startComparison = start.compareTo(interval.getStart());
+		if(startComparison != 0)
+			return startComparison;
+		return end.compareTo(interval.getEnd());
+	}
+
+	private static int height(DynamicIntervalNode<?, ?> node) {
+		return node == null ? 0 : node.height;
+	}
+
+	private void update() {
+		height = 1 + Math.max(height(leftNode), height(rightNode));
+		maxEnd = end;
+		if(leftNode != null && leftNode.maxEnd.compareTo(maxEnd) > 0)
+			maxEnd = leftNode.maxEnd;
+		if(rightNode != null && rightNode.maxEnd.compareTo(maxEnd) > 0)
+			maxEnd = rightNode.maxEnd;
+	}
+
+	private static <N extends Number & Comparable<N>, Type> DynamicIntervalNode<N, Type> rebalance(DynamicIntervalNode<N, Type> node) {
+		node.update();
+		int balance = height(node.leftNode) - height(node.rightNode);
+		if(balance > 1) {
+			if(height(node.leftNode.leftNode) < height(node.leftNode.rightNode))
+				node.leftNode = rotateLeft(node.leftNode);
+			return rotateRight(node);
+		}
+		if(balance < -1) {
+			if(height(node.rightNode.rightNode) < height(node.rightNode.leftNode))
+				node.rightNode = rotateRight(node.rightNode);
+			return rotateLeft(node);
+		}
+		return node;
+	}
+
+	private static <N extends Number & Comparable<N>, Type> DynamicIntervalNode<N, Type> rotateRight(DynamicIntervalNode<N, Type> node) {
+		DynamicIntervalNode<N, Type> pivot = node.leftNode;
+		node.leftNode = pivot.rightNode;
+		pivot.rightNode = node;
+		node.update();
+		pivot.update();
+		return pivot;
+	}
+
+	private static <N extends Number & Comparable<N>, Type> DynamicIntervalNode<N, Type> rotateLeft(DynamicIntervalNode<N, Type> node) {
+		DynamicIntervalNode<N, Type> pivot = node.rightNode;
+		node.rightNode = pivot.leftNode;
+		pivot.leftNode = node;
+		node.update();
+		pivot.update();
+		return pivot;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("[").append(start).append(",").append(end).append("] max ").append(maxEnd).append(": ");
+		for(Interval<N, Type> interval : intervals) {
+			sb.append("(").append(interval.getStart()).append(",").append(interval.getEnd()).append(",").append(interval.getData()).append(") ");
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,166 @@
+package intervalTree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DynamicIntervalTree holds the same mapping from intervals to objects as an
+ * {@link IntervalTree}, but is backed by a self-balancing augmented tree rather
+ * than a static one. Intervals can be added and removed in O(log n) and queries
+ * never trigger a rebuild, which suits workloads that interleave writes and reads.
+ *
+ * Use {@link IntervalTree} for read-mostly data, where its static layout gives
+ * cheaper queries.
+ *
+ * @param <Type> the type of objects to associate
+ */
+public class DynamicIntervalTree<N extends Number & Comparable<N>, Type> {
+
+	private DynamicIntervalNode<N, Type> head;
+	private int size;
+
+	/**
+	 * Instantiate a new interval tree with no intervals
+	 */
+	public DynamicIntervalTree() {
+		this.head = null;
+		this.size = 0;
+	}
+
+	/**
+	 * Instantiate an interval tree with a preset list of intervals
+	 * @param intervalList the list of intervals to use
+	 */
+	public DynamicIntervalTree(List<Interval<N, Type>> intervalList) {
+		this();
+		for(Interval<N, Type> interval : intervalList)
+			addInterval(interval);
+	}
+
+	/**
+	 * Perform a stabbing query, returning the associated data
+	 * @param queryValue the number to stab
+	 * @return	   the data associated with all intervals that contain queryValue
+	 */
+	public List<Type> get(N queryValue) {
+		List<Interval<N, Type>> intervals = getIntervals(queryValue);
+		List<Type> result = new ArrayList<>();
+		for(Interval<N, Type> interval : intervals)
+			result.add(interval.getData());
+		return result;
+	}
+
+	/**
+	 * Perform a stabbing query, returning the interval objects
+	 * @param value the value to stab
+	 * @return	   all intervals that contain value, ordered by start
+	 */
+	public List<Interval<N, Type>> getIntervals(N value) {
+		List<Interval<N, Type>> result = new ArrayList<>();
+		if(head != null)
+			head.stab(value, result);
+		return result;
+	}
+
+	/**
+	 * Perform an interval query, returning the associated data
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	the data associated with all intervals that intersect target
+	 */
+	public List<Type> get(N start, N end) {
+		if ( start.compareTo(end) > 0) {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+		List<Interval<N, Type>> intervals = getIntervals(start, end);
+		List<Type> result = new ArrayList<>();
+		for(Interval<N, Type> interval : intervals)
+			result.add(interval.getData());
+		return result;
+	}
+
+	/**
+	 * Perform an interval query, returning the interval objects
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	all intervals that intersect target, ordered by start
+	 */
+	public List<Interval<N, Type>> getIntervals(N start, N end) {
+		List<Interval<N, Type>> result = new ArrayList<>();
+		if(head != null)
+			head.query(new Interval<N, Type>(start, end, null), result);
+		return result;
+	}
+
+	/**
+	 * Add an interval object to the interval tree
+	 * @param interval the interval object to add
+	 */
+	public void addInterval(Interval<N, Type> interval) {
+		if ( interval.getEnd().compareTo(interval.getStart()) >= 0) {
+			head = DynamicIntervalNode.insert(head, interval);
+			size++;
+		} else {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+	}
+
+	/**
+	 * Add an interval object to the interval tree
+	 * @param begin the beginning of the interval
+	 * @param end	the end of the interval
+	 * @param data	the data to associate
+	 */
+	public void addInterval(N begin, N end, Type data) {
+		addInterval(new Interval<>(begin, end, data));
+	}
+
+	/**
+	 * Remove one interval equal to the given interval object from the interval tree
+	 * @param interval the interval object to remove
+	 * @return true if the tree contained the interval
+	 */
+	public boolean removeInterval(Interval<N, Type> interval) {
+		boolean[] removed = new boolean[1];
+		head = DynamicIntervalNode.remove(head, interval, removed);
+		if(removed[0])
+			size--;
+		return removed[0];
+	}
+
+	/**
+	 * Remove one interval with the given bounds and data from the interval tree
+	 * @param begin the beginning of the interval
+	 * @param end	the end of the interval
+	 * @param data	the associated data
+	 * @return true if the tree contained the interval
+	 */
+	public boolean removeInterval(N begin, N end, Type data) {
+		return removeInterval(new Interval<>(begin, end, data));
+	}
+
+	/**
+	 * @return the number of entries in the interval tree
+	 */
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public String toString() {
+		return nodeString(head,0);
+	}
+
+	private String nodeString(DynamicIntervalNode<N, Type> node, int level) {
+		if(node == null)
+			return "";
+
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < level; i++)
+			sb.append("\t");
+		sb.append(node).append("\n");
+		sb.append(nodeString(node.getLeft(), level + 1));
+		sb.append(nodeString(node.getRight(), level + 1));
+		return sb.toString();
+	}
+}
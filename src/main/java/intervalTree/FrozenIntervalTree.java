@@ -0,0 +1,294 @@
+package intervalTree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A FrozenIntervalTree is an immutable, array-backed copy of a built {@link IntervalTree}.
+ *
+ * The {@link IntervalNode} object graph is compiled into a handful of parallel arrays,
+ * with nodes numbered in breadth-first order so the top levels of the tree share cache
+ * lines. Every node owns a contiguous slice of the same two orderings {@link IntervalNode}
+ * keeps: ascending by start and descending by end.
+ *
+ * Queries return the same intervals, in the same order, as the tree it was frozen from.
+ *
+ * @param <Type> the type of objects to associate
+ */
+public class FrozenIntervalTree<N extends Number & Comparable<N>, Type> {
+
+	private static final int NO_NODE = -1;
+
+	private final Object[] centers;
+	private final int[] leftNodes;
+	private final int[] rightNodes;
+	private final int[] sliceOffsets;
+
+	private final Object[] startKeys;
+	private final Object[] endKeys;
+	private final int[] endOrder;
+
+	private final Interval<?, ?>[] intervals;
+
+	/**
+	 * Compile a built node graph into the frozen layout
+	 * @param head the root of the tree to freeze
+	 * @param size the number of intervals stored under head
+	 */
+	FrozenIntervalTree(IntervalNode<N, Type> head, int size) {
+		List<IntervalNode<N, Type>> nodes = new ArrayList<>();
+		Deque<IntervalNode<N, Type>> queue = new ArrayDeque<>();
+		if(size > 0)
+			queue.add(head);
+		while(!queue.isEmpty()) {
+			IntervalNode<N, Type> node = queue.poll();
+			nodes.add(node);
+			if(node.getLeft() != null)
+				queue.add(node.getLeft());
+			if(node.getRight() != null)
+				queue.add(node.getRight());
+		}
+
+		centers = new Object[nodes.size()];
+		leftNodes = new int[nodes.size()];
+		rightNodes = new int[nodes.size()];
+		sliceOffsets = new int[nodes.size() + 1];
+		startKeys = new Object[size];
+		endKeys = new Object[size];
+		endOrder = new int[size];
+		intervals = new Interval<?, ?>[size];
+
+		// children are numbered in the same breadth-first order they were queued in
+		int nextChild = 1;
+		int offset = 0;
+		for(int i = 0; i < nodes.size(); i++) {
+			IntervalNode<N, Type> node = nodes.get(i);
+			centers[i] = node.getCenter();
+			leftNodes[i] = node.getLeft() != null ? nextChild++ : NO_NODE;
+			rightNodes[i] = node.getRight() != null ? nextChild++ : NO_NODE;
+			sliceOffsets[i] = offset;
+
+			// the interval slice itself is laid out in start order
+			List<Interval<N, Type>> byStart = node.getIntervals();
+			Integer[] byEnd = new Integer[byStart.size()];
+			for(int j = 0; j < byStart.size(); j++) {
+				Interval<N, Type> interval = byStart.get(j);
+				intervals[offset + j] = interval;
+				startKeys[offset + j] = interval.getStart();
+				byEnd[j] = j;
+			}
+
+			Arrays.sort(byEnd, (a, b) -> byStart.get(b).getEnd().compareTo(byStart.get(a).getEnd()));
+			for(int j = 0; j < byEnd.length; j++) {
+				endKeys[offset + j] = byStart.get(byEnd[j]).getEnd();
+				endOrder[offset + j] = offset + byEnd[j];
+			}
+			offset += byStart.size();
+		}
+		sliceOffsets[nodes.size()] = offset;
+	}
+
+	/**
+	 * Perform a stabbing query, returning the associated data
+	 * @param queryValue the number to stab
+	 * @return	   the data associated with all intervals that contain queryValue
+	 */
+	public List<Type> get(N queryValue) {
+		List<Type> result = new ArrayList<>();
+		for(Interval<N, Type> interval : getIntervals(queryValue))
+			result.add(interval.getData());
+		return result;
+	}
+
+	/**
+	 * Perform a stabbing query, returning the interval objects
+	 * @param value the value to stab
+	 * @return	   all intervals that contain value
+	 */
+	public List<Interval<N, Type>> getIntervals(N value) {
+		List<Interval<N, Type>> result = new ArrayList<>();
+		int node = centers.length > 0 ? 0 : NO_NODE;
+		while(node != NO_NODE) {
+			int from = sliceOffsets[node];
+			int to = sliceOffsets[node + 1];
+			int comparison = value.compareTo(key(centers, node));
+			if(comparison < 0) {
+				for(int i = from; i < to && key(startKeys, i).compareTo(value) <= 0; i++)
+					result.add(intervalAt(i));
+				node = leftNodes[node];
+			} else if(comparison > 0) {
+				for(int i = from; i < to && key(endKeys, i).compareTo(value) >= 0; i++)
+					result.add(intervalAt(endOrder[i]));
+				node = rightNodes[node];
+			} else {
+				for(int i = from; i < to; i++)
+					result.add(intervalAt(i));
+				node = NO_NODE;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Perform an interval query, returning the associated data
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	the data associated with all intervals that intersect target
+	 */
+	public List<Type> get(N start, N end) {
+		if ( start.compareTo(end) > 0) {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+		List<Type> result = new ArrayList<>();
+		for(Interval<N, Type> interval : getIntervals(start, end))
+			result.add(interval.getData());
+		return result;
+	}
+
+	/**
+	 * Perform an interval query, returning the interval objects
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	all intervals that intersect target
+	 */
+	public List<Interval<N, Type>> getIntervals(N start, N end) {
+		List<Interval<N, Type>> result = new ArrayList<>();
+		if(centers.length > 0)
+			query(0, start, end, result);
+		return result;
+	}
+
+	private void query(int node, N start, N end, List<Interval<N, Type>> result) {
+		int from = sliceOffsets[node];
+		int to = sliceOffsets[node + 1];
+		N center = key(centers, node);
+		boolean startsLeft = start.compareTo(center) < 0;
+		boolean endsRight = end.compareTo(center) > 0;
+
+		if(end.compareTo(center) < 0) {
+			for(int i = from; i < to && key(startKeys, i).compareTo(end) <= 0; i++)
+				result.add(intervalAt(i));
+		} else if(start.compareTo(center) > 0) {
+			for(int i = from; i < to && key(endKeys, i).compareTo(start) >= 0; i++)
+				result.add(intervalAt(endOrder[i]));
+		} else {
+			for(int i = from; i < to; i++)
+				result.add(intervalAt(i));
+		}
+
+		if(startsLeft && leftNodes[node] != NO_NODE)
+			query(leftNodes[node], start, end, result);
+		if(endsRight && rightNodes[node] != NO_NODE)
+			query(rightNodes[node], start, end, result);
+	}
+
+	/**
+	 * Write the frozen tree to a compact binary snapshot, to be opened with {@link MappedIntervalTree}
+	 * Keys must be Long, Integer, Short, Byte, Double or Float
+	 * @param file	  the file to write, replacing any existing file
+	 * @param encoder turns the data of one interval into bytes
+	 * @throws IOException if the file cannot be written, or the snapshot would exceed 2 GiB
+	 */
+	public void write(Path file, Function<? super Type, byte[]> encoder) throws IOException {
+		byte[][] payloads = new byte[intervals.length][];
+		long payloadBytes = 0;
+		for(int i = 0; i < intervals.length; i++) {
+			payloads[i] = encoder.apply(intervalAt(i).getData());
+			payloadBytes += payloads[i].length;
+		}
+		long trailerBytes = 4L * (intervals.length + 1) + payloadBytes;
+		long fileBytes = TreeLayout.bytes(centers.length, intervals.length) + trailerBytes;
+		if(fileBytes > Integer.MAX_VALUE)
+			throw new IOException("snapshot of " + fileBytes + " bytes is too large to map");
+
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes);
+			writeLayout(out, trailerBytes);
+
+			int offset = 0;
+			out.putInt(offset);
+			for(byte[] payload : payloads) {
+				offset += payload.length;
+				out.putInt(offset);
+			}
+			for(byte[] payload : payloads)
+				out.put(payload);
+			out.force();
+		}
+	}
+
+	/**
+	 * Write the nodes and keys of the frozen tree as a {@link TreeLayout}, from the buffer's position on
+	 * @param out		   the buffer to write to, with room for {@link TreeLayout#bytes} bytes
+	 * @param trailerBytes the number of bytes the caller will write after the layout
+	 * @throws IllegalArgumentException if the keys are not Long, Integer, Short, Byte, Double or Float
+	 */
+	void writeLayout(ByteBuffer out, long trailerBytes) {
+		int keyKind = centers.length > 0 ? TreeLayout.keyKind((Number) centers[0]) : TreeLayout.KEY_LONG;
+		out.putInt(TreeLayout.MAGIC);
+		out.putInt(TreeLayout.VERSION);
+		out.putInt(keyKind);
+		out.putInt(centers.length);
+		out.putInt(intervals.length);
+		out.putInt(0);
+		out.putLong(trailerBytes);
+
+		for(Object center : centers)
+			out.putLong(TreeLayout.encodeKey((Number) center, keyKind));
+		for(Object key : startKeys)
+			out.putLong(TreeLayout.encodeKey((Number) key, keyKind));
+		for(Object key : endKeys)
+			out.putLong(TreeLayout.encodeKey((Number) key, keyKind));
+		for(int node : leftNodes)
+			out.putInt(node);
+		for(int node : rightNodes)
+			out.putInt(node);
+		for(int offset : sliceOffsets)
+			out.putInt(offset);
+		for(int index : endOrder)
+			out.putInt(index);
+	}
+
+	/**
+	 * @param slot the position of an interval in the start order of the frozen layout
+	 * @return	   the data associated with that interval
+	 */
+	Type getData(int slot) {
+		return intervalAt(slot).getData();
+	}
+
+	/**
+	 * @return the number of intervals in the frozen tree
+	 */
+	public int size() {
+		return intervals.length;
+	}
+
+	/**
+	 * @return the number of nodes in the frozen tree
+	 */
+	public int nodeCount() {
+		return centers.length;
+	}
+
+	@SuppressWarnings("unchecked")
+	private N key(Object[] keys, int index) {
+		return (N) keys[index];
+	}
+
+	@SuppressWarnings("unchecked")
+	private Interval<N, Type> intervalAt(int index) {
+		return (Interval<N, Type>) intervals[index];
+	}
+}
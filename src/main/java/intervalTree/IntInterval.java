@@ -0,0 +1,102 @@
+package intervalTree;
+
+/**
+ * The IntInterval class maintains an interval with primitive int endpoints
+ * and some associated data
+ *
+ * @param <Type> The type of data being stored
+ */
+public class IntInterval<Type> implements Comparable<IntInterval<Type>> {
+
+	private int start;
+	private int end;
+	private Type data;
+
+	public IntInterval(int start, int end, Type data) {
+		this.start = start;
+		this.end = end;
+		this.data = data;
+	}
+
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+
+		IntInterval<?> other = (IntInterval<?>) o;
+
+		return start == other.getStart() && end == other.getEnd() && (data != null ? data.equals(other.getData()) : other.getData() == null);
+	}
+
+
+	@Override
+	public int hashCode() {
+		int result = Integer.hashCode(start);
+		result = 31 * result + Integer.hashCode(end);
+		result = 31 * result + (data != null ? data.hashCode() : 0);
+		return result;
+	}
+
+
+	int getStart() {
+		return start;
+	}
+
+	public void setStart(int start) {
+		this.start = start;
+	}
+
+	int getEnd() {
+		return end;
+	}
+
+	public void setEnd(int end) {
+		this.end = end;
+	}
+
+	Type getData() {
+		return data;
+	}
+
+	public void setData(Type data) {
+		this.data = data;
+	}
+
+	/**
+	 * @param queryValue
+	 * @return	true if this interval contains queryValue (inclusive)
+	 */
+	boolean contains(int queryValue) {
+		return queryValue <= end && queryValue >= start;
+	}
+
+	/**
+	 * @param other
+	 * @return	return true if this interval intersects other
+	 */
+	boolean intersects(IntInterval<?> other) {
+		return other.getEnd() >= start && other.getStart() <= end;
+	}
+
+	/**
+	 * Return -1 if this interval's start is less than the other, 1 if greater
+	 * In the event of a tie, -1 if this interval's end is less than the other, 1 if greater, 0 if same
+	 * @param other
+	 * @return 1 or -1
+	 */
+	@Override
+	public int compareTo(IntInterval<Type> other) {
+		int startComparison = Integer.compare(start, other.getStart());
+		if (startComparison != 0) {
+			return startComparison;
+		} else {
+			return Integer.compare(end, other.getEnd());
+		}
+	}
+
+}
@@ -0,0 +1,248 @@
+package intervalTree;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * The IntIntervalNode class contains the interval tree information for one single node
+ * of a {@link IntIntervalTree}. Intervals are referenced by their index into the
+ * endpoint arrays held by the tree, so a node never boxes an endpoint. Like
+ * {@link IntervalNode} the indices are kept ascending by start and descending by end.
+ */
+public class IntIntervalNode {
+
+	private static final int[] NO_INTERVALS = new int[0];
+
+	private int[] byStart;
+	private int[] byEnd;
+	private int center;
+	private IntIntervalNode leftNode;
+	private IntIntervalNode rightNode;
+
+	IntIntervalNode() {
+		byStart = NO_INTERVALS;
+		byEnd = NO_INTERVALS;
+		center = 0;
+		leftNode = null;
+		rightNode = null;
+	}
+
+	/**
+	 * @param indices the indices of the intervals to store in this subtree, in insertion order
+	 * @param count	  the number of valid entries in indices
+	 * @param starts  the start of every interval in the tree
+	 * @param ends	  the end of every interval in the tree
+	 */
+	IntIntervalNode(int[] indices, int count, int[] starts, int[] ends) {
+
+		int median = getMedian(indices, count, starts, ends);
+		center = median;
+
+		int[] left = new int[count];
+		int[] right = new int[count];
+		int[] mine = new int[count];
+		int leftCount = 0;
+		int rightCount = 0;
+		int mineCount = 0;
+
+		for(int i = 0; i < count; i++) {
+			int index = indices[i];
+			if(ends[index] < median)
+				left[leftCount++] = index;
+			else if(starts[index] > median)
+				right[rightCount++] = index;
+			else
+				mine[mineCount++] = index;
+		}
+
+		byStart = Arrays.copyOf(mine, mineCount);
+		sort(byStart, starts, ends, false);
+		byEnd = byStart.clone();
+		sort(byEnd, starts, ends, true);
+
+		if(leftCount > 0)
+			leftNode = new IntIntervalNode(left, leftCount, starts, ends);
+		if(rightCount > 0)
+			rightNode = new IntIntervalNode(right, rightCount, starts, ends);
+	}
+
+	/**
+	 * Perform a stabbing query on the node
+	 * @param queryValue the value to query at
+	 * @param starts	 the start of every interval in the tree
+	 * @param ends		 the end of every interval in the tree
+	 * @param consumer	 receives the index of every interval containing queryValue
+	 */
+	void stab(int queryValue, int[] starts, int[] ends, IntConsumer consumer) {
+		IntIntervalNode node = this;
+		while(node != null) {
+			if(queryValue < node.center) {
+				for(int index : node.byStart) {
+					if(starts[index] > queryValue)
+						break;
+					consumer.accept(index);
+				}
+				node = node.leftNode;
+			} else if(queryValue > node.center) {
+				for(int index : node.byEnd) {
+					if(ends[index] < queryValue)
+						break;
+					consumer.accept(index);
+				}
+				node = node.rightNode;
+			} else {
+				for(int index : node.byStart)
+					consumer.accept(index);
+				node = null;
+			}
+		}
+	}
+
+	/**
+	 * Perform an interval intersection query on the node
+	 * @param start	   the start of the interval to intersect
+	 * @param end	   the end of the interval to intersect
+	 * @param starts   the start of every interval in the tree
+	 * @param ends	   the end of every interval in the tree
+	 * @param consumer receives the index of every interval intersecting [start, end]
+	 */
+	void query(int start, int end, int[] starts, int[] ends, IntConsumer consumer) {
+		if(end < center) {
+			for(int index : byStart) {
+				if(starts[index] > end)
+					break;
+				consumer.accept(index);
+			}
+		} else if(start > center) {
+			for(int index : byEnd) {
+				if(ends[index] < start)
+					break;
+				consumer.accept(index);
+			}
+		} else {
+			for(int index : byStart)
+				consumer.accept(index);
+		}
+
+		if(start < center && leftNode != null)
+			leftNode.query(start, end, starts, ends, consumer);
+		if(end > center && rightNode != null)
+			rightNode.query(start, end, starts, ends, consumer);
+	}
+
+	public int getCenter() {
+		return center;
+	}
+
+	public void setCenter(int center) {
+		this.center = center;
+	}
+
+	IntIntervalNode getLeft() {
+		return leftNode;
+	}
+
+	public void setLeft(IntIntervalNode left) {
+		this.leftNode = left;
+	}
+
+	IntIntervalNode getRight() {
+		return rightNode;
+	}
+
+	public void setRight(IntIntervalNode right) {
+		this.rightNode = right;
+	}
+
+	/**
+	 * @return the indices of the intervals stored at this node, ordered by start then end
+	 */
+	int[] getIntervals() {
+		return byStart;
+	}
+
+	/**
+	 * @return the median of the distinct endpoints of the given intervals, not interpolated
+	 */
+	private static int getMedian(int[] indices, int count, int[] starts, int[] ends) {
+		int[] endpoints = new int[count * 2];
+		for(int i = 0; i < count; i++) {
+			endpoints[2 * i] = starts[indices[i]];
+			endpoints[2 * i + 1] = ends[indices[i]];
+		}
+		Arrays.sort(endpoints);
+
+		int distinct = 0;
+		for(int i = 0; i < endpoints.length; i++) {
+			if(i == 0 || endpoints[i] != endpoints[distinct - 1])
+				endpoints[distinct++] = endpoints[i];
+		}
+		return distinct == 0 ? 0 : endpoints[distinct / 2];
+	}
+
+	/**
+	 * Stable merge sort of interval indices, either ascending by start and then by end,
+	 * or descending by end
+	 */
+	private static void sort(int[] indices, int[] starts, int[] ends, boolean byEnd) {
+		if(indices.length > 1)
+			mergeSort(indices, indices.clone(), 0, indices.length, starts, ends, byEnd);
+	}
+
+	private static void mergeSort(int[] dest, int[] src, int from, int to, int[] starts, int[] ends, boolean byEnd) {
+		if(to - from < 2)
+			return;
+		int mid = (from + to) >>> 1;
+		mergeSort(src, dest, from, mid, starts, ends, byEnd);
+		mergeSort(src, dest, mid, to, starts, ends, byEnd);
+
+		int i = from;
+		int j = mid;
+		for(int k = from; k < to; k++) {
+			if(j >= to || (i < mid && compare(src[i], src[j], starts, ends, byEnd) <= 0))
+				dest[k] = src[i++];
+			else
+				dest[k] = src[j++];
+		}
+	}
+
+	private static int compare(int a, int b, int[] starts, int[] ends, boolean byEnd) {
+		if(byEnd)
+			return Integer.compare(ends[b], ends[a]);
+		int startComparison = Integer.compare(starts[a], starts[b]);
+		if(startComparison != 0)
+			return startComparison;
+		return Integer.compare(ends[a], ends[b]);
+	}
+
+	@Override
+	public String toString() {
+		return center + ": " + byStart.length + " intervals";
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+
+		IntIntervalNode that = (IntIntervalNode) o;
+
+		return Arrays.equals(byStart, that.byStart) && center == that.center && (leftNode != null ? leftNode.equals(that.leftNode) :
+				that.leftNode == null) && (rightNode != null ? rightNode.equals(that.rightNode) : that.rightNode == null);
+	}
+
+
+	@Override
+	public int hashCode() {
+		int result = Arrays.hashCode(byStart);
+		result = 31 * result + Integer.hashCode(center);
+		result = 31 * result + (leftNode != null ? leftNode.hashCode() : 0);
+		result = 31 * result + (rightNode != null ? rightNode.hashCode() : 0);
+		return result;
+	}
+
+}
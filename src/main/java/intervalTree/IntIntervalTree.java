@@ -0,0 +1,286 @@
+package intervalTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A IntIntervalTree is an {@link IntervalTree} specialised for primitive int
+ * endpoints. Endpoints are kept in parallel int arrays instead of boxed
+ * {@link Interval} objects, and queries compare them directly rather than
+ * through {@link Comparable#compareTo}.
+ *
+ * @param <Type> the type of objects to associate
+ */
+public class IntIntervalTree<Type> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private IntIntervalNode head;
+	private int[] starts;
+	private int[] ends;
+	private Payloads data;
+	private int count;
+	private boolean inSync;
+	private int size;
+
+	/**
+	 * Instantiate a new interval tree with no intervals
+	 */
+	public IntIntervalTree() {
+		this.head = new IntIntervalNode();
+		this.starts = new int[DEFAULT_CAPACITY];
+		this.ends = new int[DEFAULT_CAPACITY];
+		this.data = new Payloads(DEFAULT_CAPACITY, false);
+		this.count = 0;
+		this.inSync = false;
+		this.size = 0;
+	}
+
+	/**
+	 * Instantiate an interval tree with a preset list of intervals
+	 * @param intervalList the list of intervals to use
+	 */
+	public IntIntervalTree(List<IntInterval<Type>> intervalList) {
+		int capacity = Math.max(intervalList.size(), DEFAULT_CAPACITY);
+		this.starts = new int[capacity];
+		this.ends = new int[capacity];
+		this.data = new Payloads(capacity, false);
+
+		for (IntInterval<Type> interval : intervalList) {
+			addInterval(interval.getStart(), interval.getEnd(), interval.getData());
+		}
+
+		build();
+	}
+
+	/**
+	 * Perform a stabbing query, returning the associated data
+	 * Will rebuild the tree if out of sync
+	 * @param queryValue the number to stab
+	 * @return	   the data associated with all intervals that contain queryValue
+	 */
+	public List<Type> get(int queryValue) {
+		build();
+		List<Type> result = new ArrayList<>();
+		head.stab(queryValue, starts, ends, index -> result.add(dataAt(index)));
+		return result;
+	}
+
+	/**
+	 * Perform a stabbing query, returning the interval objects
+	 * Will rebuild the tree if out of sync
+	 * @param value the value to stab
+	 * @return	   all intervals that contain value
+	 */
+	public List<IntInterval<Type>> getIntervals(int value) {
+		build();
+		List<IntInterval<Type>> result = new ArrayList<>();
+		head.stab(value, starts, ends, index -> result.add(intervalAt(index)));
+		return result;
+	}
+
+	/**
+	 * Perform an interval query, returning the associated data
+	 * Will rebuild the tree if out of sync
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	the data associated with all intervals that intersect target
+	 */
+	public List<Type> get(int start, int end) {
+		if (start > end) {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+		build();
+		List<Type> result = new ArrayList<>();
+		head.query(start, end, starts, ends, index -> result.add(dataAt(index)));
+		return result;
+	}
+
+	/**
+	 * Perform an interval query, returning the interval objects
+	 * Will rebuild the tree if out of sync
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	all intervals that intersect target
+	 */
+	public List<IntInterval<Type>> getIntervals(int start, int end) {
+		build();
+		List<IntInterval<Type>> result = new ArrayList<>();
+		head.query(start, end, starts, ends, index -> result.add(intervalAt(index)));
+		return result;
+	}
+
+	/**
+	 * Add an interval object to the interval tree's list
+	 * Will not rebuild the tree until the next query or call to build
+	 * @param interval the interval object to add
+	 */
+	public void addInterval(IntInterval<Type> interval) {
+		addInterval(interval.getStart(), interval.getEnd(), interval.getData());
+	}
+
+	/**
+	 * Add an interval object to the interval tree's list
+	 * Will not rebuild the tree until the next query or call to build
+	 * @param begin the beginning of the interval
+	 * @param end	the end of the interval
+	 * @param data	the data to associate
+	 */
+	public void addInterval(int begin, int end, Type data) {
+		if (end >= begin) {
+			inSync = false;
+			ensureCapacity(count + 1);
+			this.starts[count] = begin;
+			this.ends[count] = end;
+			this.data.set(count, data);
+			count++;
+		} else {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+	}
+
+	/**
+	 * Store payloads dictionary encoded from now on, or plainly again
+	 * Encoded, every distinct payload is kept once and each interval only keeps its ordinal in the dictionary:
+	 * a byte while there are at most 256 distinct payloads, a short up to 65536 and an int beyond.
+	 * Queries return the same data either way
+	 * @param encoded true to encode payloads against a dictionary
+	 */
+	public void setDictionaryEncoded(boolean encoded) {
+		if(encoded != data.isEncoded())
+			data = data.reencode(count, encoded);
+	}
+
+	/**
+	 * @return true if payloads are stored dictionary encoded
+	 */
+	public boolean isDictionaryEncoded() {
+		return data.isEncoded();
+	}
+
+	/**
+	 * @return the number of distinct payloads if they are stored dictionary encoded, otherwise -1
+	 */
+	public int dictionarySize() {
+		return data.dictionarySize();
+	}
+
+	/**
+	 * Determine whether this interval tree is currently a reflection of all intervals in the interval list
+	 * @return true if no changes have been made since the last build
+	 */
+	public boolean inSync() {
+		return inSync;
+	}
+
+	/**
+	 * Build the interval tree to reflect the list of intervals,
+	 * Will not run if this is currently in sync
+	 */
+	private void build() {
+		if(!inSync) {
+			if(count == 0) {
+				head = new IntIntervalNode();
+			} else {
+				int[] indices = new int[count];
+				for(int i = 0; i < count; i++)
+					indices[i] = i;
+				head = new IntIntervalNode(indices, count, starts, ends);
+			}
+			inSync = true;
+			size = count;
+		}
+	}
+
+	/**
+	 * @return the number of entries in the currently built interval tree
+	 */
+	public int currentSize() {
+		return size;
+	}
+
+	/**
+	 * @return the number of entries in the interval list, equal to .size() if inSync()
+	 */
+	public int listSize() {
+		return count;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Type dataAt(int index) {
+		return (Type) data.get(index);
+	}
+
+	private IntInterval<Type> intervalAt(int index) {
+		return new IntInterval<>(starts[index], ends[index], dataAt(index));
+	}
+
+	private void ensureCapacity(int capacity) {
+		if(capacity > starts.length) {
+			int newCapacity = Math.max(capacity, starts.length + (starts.length >> 1));
+			starts = Arrays.copyOf(starts, newCapacity);
+			ends = Arrays.copyOf(ends, newCapacity);
+			data.resize(newCapacity);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return nodeString(head,0);
+	}
+
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+
+		IntIntervalTree<?> that = (IntIntervalTree<?>) o;
+
+		if (inSync != that.inSync || size != that.size || count != that.count) {
+			return false;
+		}
+		for (int i = 0; i < count; i++) {
+			if (starts[i] != that.starts[i] || ends[i] != that.ends[i] || (data.get(i) != null ? !data.get(i).equals(that.data.get(i)) : that.data.get(i) != null)) {
+				return false;
+			}
+		}
+		return head != null ? head.equals(that.head) : that.head == null;
+	}
+
+
+	@Override
+	public int hashCode() {
+		int result = head != null ? head.hashCode() : 0;
+		for (int i = 0; i < count; i++) {
+			result = 31 * result + Integer.hashCode(starts[i]);
+			result = 31 * result + Integer.hashCode(ends[i]);
+			result = 31 * result + (data.get(i) != null ? data.get(i).hashCode() : 0);
+		}
+		result = 31 * result + (inSync ? 1 : 0);
+		result = 31 * result + size;
+		return result;
+	}
+
+
+	private String nodeString(IntIntervalNode node, int level) {
+		if(node == null)
+			return "";
+
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < level; i++)
+			sb.append("\t");
+		sb.append(node.getCenter()).append(": ");
+		for(int index : node.getIntervals())
+			sb.append("(").append(starts[index]).append(",").append(ends[index]).append(",").append(data.get(index)).append(") ");
+		sb.append("\n");
+		sb.append(nodeString(node.getLeft(), level + 1));
+		sb.append(nodeString(node.getRight(), level + 1));
+		return sb.toString();
+	}
+}
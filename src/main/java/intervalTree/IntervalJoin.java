@@ -0,0 +1,181 @@
+package intervalTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+
+/**
+ * The IntervalJoin class finds every overlapping pair between the intervals of two trees
+ * with a sort-merge sweep, in time proportional to sorting both sides plus the number of
+ * pairs found.
+ *
+ * Both sides are visited in order of start. Each side keeps the intervals that have started
+ * and may still be open; when an interval starts, it is paired with every open interval of
+ * the other side that has not ended before it, and those that have are dropped. Each pair is
+ * found exactly once, when the later of its two intervals starts.
+ *
+ * In parallel, the key space is cut into ranges of about equal numbers of starts, and every
+ * range is swept on its own. A pair belongs to the range its later start falls in. The
+ * intervals still open where a range begins are found with a stabbing query on each tree.
+ */
+final class IntervalJoin<N extends Number & Comparable<N>, A, B> {
+
+	/** ranges with fewer starts than this are not worth a task of their own */
+	static final int PARALLEL_CUTOFF = 8192;
+
+	private final IntervalNode<N, A> leftHead;
+	private final IntervalNode<N, B> rightHead;
+	private final Interval<N, A>[] left;
+	private final Interval<N, B>[] right;
+	private final BiConsumer<? super Interval<N, A>, ? super Interval<N, B>> visitor;
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	IntervalJoin(IntervalNode<N, A> leftHead, List<Interval<N, A>> left, IntervalNode<N, B> rightHead, List<Interval<N, B>> right,
+			BiConsumer<? super Interval<N, A>, ? super Interval<N, B>> visitor) {
+		this.leftHead = leftHead;
+		this.rightHead = rightHead;
+		this.left = left.toArray(new Interval[0]);
+		this.right = right.toArray(new Interval[0]);
+		this.visitor = visitor;
+	}
+
+	/**
+	 * Find every pair on the calling thread
+	 */
+	void run() {
+		Arrays.sort(left, IntervalJoin::compareStarts);
+		Arrays.sort(right, IntervalJoin::compareStarts);
+		sweep(0, left.length, 0, right.length, new ArrayList<>(), new ArrayList<>());
+	}
+
+	/**
+	 * Find every pair on a fork/join pool, calling the visitor from many threads at once
+	 */
+	void run(ForkJoinPool pool) {
+		pool.invoke(ForkJoinTask.adapt(() -> {
+			// sorts in the pool running this task
+			ForkJoinTask.invokeAll(ForkJoinTask.adapt(() -> Arrays.parallelSort(left, IntervalJoin::compareStarts)),
+					ForkJoinTask.adapt(() -> Arrays.parallelSort(right, IntervalJoin::compareStarts)));
+
+			List<N> bounds = bounds(Math.min(4 * pool.getParallelism(), (left.length + right.length) / PARALLEL_CUTOFF));
+			List<ForkJoinTask<?>> ranges = new ArrayList<>();
+			for(int i = 0; i <= bounds.size(); i++) {
+				N from = i == 0 ? null : bounds.get(i - 1);
+				N to = i == bounds.size() ? null : bounds.get(i);
+				ranges.add(ForkJoinTask.adapt(() -> sweepRange(from, to)));
+			}
+			ForkJoinTask.invokeAll(ranges);
+		}));
+	}
+
+	/**
+	 * Choose the keys to cut the sorted starts of both sides at, ascending and distinct
+	 * @param ranges the number of ranges wanted
+	 */
+	private List<N> bounds(int ranges) {
+		List<N> candidates = new ArrayList<>();
+		for(int i = 1; i < ranges; i++) {
+			if(left.length > 0)
+				candidates.add(left[(int) ((long) i * left.length / ranges)].getStart());
+			if(right.length > 0)
+				candidates.add(right[(int) ((long) i * right.length / ranges)].getStart());
+		}
+		candidates.sort(null);
+		List<N> bounds = new ArrayList<>();
+		for(int i = 1; i < candidates.size(); i += 2) {
+			N bound = candidates.get(i);
+			if(bounds.isEmpty() || bounds.get(bounds.size() - 1).compareTo(bound) < 0)
+				bounds.add(bound);
+		}
+		return bounds;
+	}
+
+	/**
+	 * Find the pairs whose later start is in [from, to)
+	 * @param from the lowest start of the range, or null for no lower bound
+	 * @param to   the start the next range begins at, or null for no upper bound
+	 */
+	private void sweepRange(N from, N to) {
+		List<Interval<N, A>> openLeft = new ArrayList<>();
+		List<Interval<N, B>> openRight = new ArrayList<>();
+		if(from != null) {
+			leftHead.stab(from, openLeft, (interval, open) -> {
+				if(interval.getStart().compareTo(from) < 0)
+					open.add(interval);
+			});
+			rightHead.stab(from, openRight, (interval, open) -> {
+				if(interval.getStart().compareTo(from) < 0)
+					open.add(interval);
+			});
+		}
+		sweep(from == null ? 0 : firstStartingAt(left, from), to == null ? left.length : firstStartingAt(left, to),
+				from == null ? 0 : firstStartingAt(right, from), to == null ? right.length : firstStartingAt(right, to), openLeft, openRight);
+	}
+
+	/**
+	 * Sweep the intervals of both sides starting in the given slices of the sorted arrays
+	 * @param openLeft	intervals of the left side that started before the slices and may still be open
+	 * @param openRight intervals of the right side that started before the slices and may still be open
+	 */
+	private void sweep(int leftFrom, int leftTo, int rightFrom, int rightTo, List<Interval<N, A>> openLeft, List<Interval<N, B>> openRight) {
+		int i = leftFrom;
+		int j = rightFrom;
+		while(i < leftTo || j < rightTo) {
+			if(j == rightTo || (i < leftTo && left[i].getStart().compareTo(right[j].getStart()) <= 0)) {
+				Interval<N, A> interval = left[i++];
+				N start = interval.getStart();
+				for(int k = openRight.size() - 1; k >= 0; k--) {
+					Interval<N, B> other = openRight.get(k);
+					if(other.getEnd().compareTo(start) < 0)
+						removeAt(openRight, k);
+					else
+						visitor.accept(interval, other);
+				}
+				openLeft.add(interval);
+			} else {
+				Interval<N, B> interval = right[j++];
+				N start = interval.getStart();
+				for(int k = openLeft.size() - 1; k >= 0; k--) {
+					Interval<N, A> other = openLeft.get(k);
+					if(other.getEnd().compareTo(start) < 0)
+						removeAt(openLeft, k);
+					else
+						visitor.accept(other, interval);
+				}
+				openRight.add(interval);
+			}
+		}
+	}
+
+	/**
+	 * Remove an element by moving the last one into its place
+	 */
+	private static <T> void removeAt(List<T> list, int index) {
+		T last = list.remove(list.size() - 1);
+		if(index < list.size())
+			list.set(index, last);
+	}
+
+	/**
+	 * @return the index of the first interval starting at or after key
+	 */
+	private static <N extends Number & Comparable<N>> int firstStartingAt(Interval<N, ?>[] sorted, N key) {
+		int low = 0;
+		int high = sorted.length;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(sorted[middle].getStart().compareTo(key) < 0)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	private static <N extends Number & Comparable<N>> int compareStarts(Interval<N, ?> a, Interval<N, ?> b) {
+		return a.getStart().compareTo(b.getStart());
+	}
+}
@@ -2,28 +2,35 @@ package intervalTree;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.SortedMap;
-import java.util.SortedSet;
-import java.util.Map.Entry;
-import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.IntBinaryOperator;
+import java.util.function.ObjIntConsumer;
 import java.util.function.Supplier;
 
 /**
  * The Node class contains the interval tree information for one single node
  * 
+ * Every interval stored at a node contains its center, so the node keeps them in two
+ * orders: ascending by start and descending by end. A query left of the center only
+ * needs a prefix of the first, a query right of the center only a prefix of the second,
+ * which keeps stabbing output-sensitive.
+ * 
  * @author Kevin Dolan
  */
 public class IntervalNode<N extends Number & Comparable<N>, Type> {
 
-	private SortedMap<Interval<N, Type>, List<Interval<N, Type>>> intervals;
+	private List<Interval<N, Type>> byStart;
+	private List<Interval<N, Type>> byEnd;
 	private N center;
 	private IntervalNode<N, Type> leftNode;
 	private IntervalNode<N, Type> rightNode;
 	private Supplier<N> supplier;
 	
 	IntervalNode(Supplier<N> supplier) {
-		intervals = new TreeMap<>();
+		byStart = new ArrayList<>();
+		byEnd = new ArrayList<>();
 		this.supplier = supplier;
         center = supplier.get();
 		leftNode = null;
@@ -31,39 +38,72 @@ public class IntervalNode<N extends Number & Comparable<N>, Type> {
 	}
 
 
+	/**
+	 * Build a subtree from a list of intervals in O(n log n)
+	 * The intervals and their endpoints are sorted once up front; every node then takes its
+	 * median by index and stable-partitions the presorted orders for its children
+	 * @param intervalList the intervals to store, in insertion order
+	 * @param supplier	   a lambda initializing a type N number to zero
+	 */
     IntervalNode(List<Interval<N, Type>> intervalList, Supplier<N> supplier) {
-		
-		intervals = new TreeMap<>();
 		this.supplier = supplier;
-		
-		SortedSet<N> endpoints = new TreeSet<>();
-		
-		for(Interval<N, Type> interval: intervalList) {
-			endpoints.add(interval.getStart());
-			endpoints.add(interval.getEnd());
+		build(new Presorted<>(intervalList, false), 0, intervalList.size());
+	}
+
+	/**
+	 * Build a subtree from a list of intervals on a fork/join pool
+	 * The sorts and all subtrees above a size cutoff are split into parallel tasks; the result
+	 * is equal to the tree built on the calling thread
+	 * @param intervalList the intervals to store, in insertion order
+	 * @param supplier	   a lambda initializing a type N number to zero
+	 * @param pool		   the pool to build on
+	 */
+	IntervalNode(List<Interval<N, Type>> intervalList, Supplier<N> supplier, ForkJoinPool pool) {
+		this.supplier = supplier;
+		pool.invoke(ForkJoinTask.adapt(() -> build(new Presorted<>(intervalList, true), 0, intervalList.size())));
+	}
+
+	private IntervalNode(Presorted<N, Type> presorted, int from, int to, Supplier<N> supplier) {
+		this.supplier = supplier;
+		build(presorted, from, to);
+	}
+
+	private void build(Presorted<N, Type> presorted, int from, int to) {
+		if(to > from) {
+			int median = presorted.median(from, to);
+			center = presorted.endpoint(median);
+			presorted.split(from, to, median);
+		} else {
+			center = supplier.get();
 		}
-		
-		N median = getMedian(endpoints);
-		center = median;
-		
-		List<Interval<N, Type>> left = new ArrayList<>();
-		List<Interval<N, Type>> right = new ArrayList<>();
-		
-		for(Interval<N, Type> interval : intervalList) {
-			if(interval.getEnd().compareTo(median) == -1)
-				left.add(interval);
-			else if(interval.getStart().compareTo(median) == 1)
-				right.add(interval);
-			else {
-                intervals.computeIfAbsent(interval,  l -> new ArrayList<>() );
-				List<Interval<N, Type>> posting = intervals.get(interval);
-				posting.add(interval);
-			}
+
+		// partitioning keeps the presorted orders, so equal intervals keep their insertion order
+		byStart = new ArrayList<>();
+		byEnd = new ArrayList<>();
+		int leftCount = presorted.partition(presorted.byStart, from, to, 1, byStart);
+		presorted.partition(presorted.byEnd, from, to, 1, byEnd);
+		presorted.partition(presorted.endpoints, 2 * from, 2 * to, 2, null);
+		int rightCount = to - from - leftCount - byStart.size();
+
+		if(presorted.parallel && leftCount + rightCount >= Presorted.PARALLEL_CUTOFF) {
+			// the children own disjoint slices of every presorted order, so they can build concurrently
+			ForkJoinTask.invokeAll(
+					ForkJoinTask.adapt(() -> buildLeft(presorted, from, leftCount)),
+					ForkJoinTask.adapt(() -> buildRight(presorted, from + leftCount, rightCount)));
+		} else {
+			buildLeft(presorted, from, leftCount);
+			buildRight(presorted, from + leftCount, rightCount);
 		}
-		if(left.size() > 0)
-			leftNode = new IntervalNode<>(left, supplier);
-		if(right.size() > 0)
-			rightNode = new IntervalNode<>(right, supplier);
+	}
+
+	private void buildLeft(Presorted<N, Type> presorted, int from, int count) {
+		if(count > 0)
+			leftNode = new IntervalNode<>(presorted, from, from + count, supplier);
+	}
+
+	private void buildRight(Presorted<N, Type> presorted, int from, int count) {
+		if(count > 0)
+			rightNode = new IntervalNode<>(presorted, from, from + count, supplier);
 	}
 
 	/**
@@ -73,19 +113,43 @@ public class IntervalNode<N extends Number & Comparable<N>, Type> {
 	 */
 	List<Interval<N, Type>> stab(N queryValue) {
 		List<Interval<N, Type>> result = new ArrayList<>();
+		stab(queryValue, result, (interval, list) -> list.add(interval));
+		return result;
+	}
 
-		for(Entry<Interval<N, Type>, List<Interval<N, Type>>> entry : intervals.entrySet()) {
-			if(entry.getKey().contains(queryValue))
-			    result.addAll(entry.getValue());
-			else if(entry.getKey().getStart().compareTo(queryValue) == 1)
-				break;
+	/**
+	 * Perform a stabbing query on the node, passing every match to a visitor
+	 * Walks a single path down the tree and allocates nothing of its own
+	 * @param queryValue the queryValue to query at
+	 * @param context	 passed through to the visitor, so the visitor need not capture state
+	 * @param visitor	 receives every interval containing queryValue, along with context
+	 */
+	<C> void stab(N queryValue, C context, BiConsumer<? super Interval<N, Type>, ? super C> visitor) {
+		IntervalNode<N, Type> node = this;
+		while(node != null) {
+			int comparison = queryValue.compareTo(node.center);
+			if(comparison < 0) {
+				for(int i = 0; i < node.byStart.size(); i++) {
+					Interval<N, Type> interval = node.byStart.get(i);
+					if(interval.getStart().compareTo(queryValue) > 0)
+						break;
+					visitor.accept(interval, context);
+				}
+				node = node.leftNode;
+			} else if(comparison > 0) {
+				for(int i = 0; i < node.byEnd.size(); i++) {
+					Interval<N, Type> interval = node.byEnd.get(i);
+					if(interval.getEnd().compareTo(queryValue) < 0)
+						break;
+					visitor.accept(interval, context);
+				}
+				node = node.rightNode;
+			} else {
+				for(int i = 0; i < node.byStart.size(); i++)
+					visitor.accept(node.byStart.get(i), context);
+				node = null;
+			}
 		}
-
-        if (queryValue.compareTo(center) == -1 && leftNode != null)
-            result.addAll(leftNode.stab(queryValue));
-        else if (queryValue.compareTo(center) == 1 && rightNode != null)
-            result.addAll(rightNode.stab(queryValue));
-		return result;
 	}
 	
 	/**
@@ -95,21 +159,277 @@ public class IntervalNode<N extends Number & Comparable<N>, Type> {
 	 */
 	List<Interval<N, Type>> query(Interval<N, ?> target) {
 		List<Interval<N, Type>> result = new ArrayList<>();
-		
-		for(Entry<Interval<N, Type>, List<Interval<N, Type>>> entry : intervals.entrySet()) {
-			if(entry.getKey().intersects(target))
-			    result.addAll(entry.getValue());
-			else if(entry.getKey().getStart().compareTo(target.getEnd()) == 1)
-				break;
+		query(target.getStart(), target.getEnd(), result, (interval, list) -> list.add(interval));
+		return result;
+	}
+
+	/**
+	 * Perform an interval intersection query on the node, passing every match to a visitor
+	 * @param start	  the start of the interval to intersect
+	 * @param end	  the end of the interval to intersect
+	 * @param context passed through to the visitor, so the visitor need not capture state
+	 * @param visitor receives every interval intersecting [start, end], along with context
+	 */
+	<C> void query(N start, N end, C context, BiConsumer<? super Interval<N, Type>, ? super C> visitor) {
+		if(end.compareTo(center) < 0) {
+			for(int i = 0; i < byStart.size(); i++) {
+				Interval<N, Type> interval = byStart.get(i);
+				if(interval.getStart().compareTo(end) > 0)
+					break;
+				visitor.accept(interval, context);
+			}
+		} else if(start.compareTo(center) > 0) {
+			for(int i = 0; i < byEnd.size(); i++) {
+				Interval<N, Type> interval = byEnd.get(i);
+				if(interval.getEnd().compareTo(start) < 0)
+					break;
+				visitor.accept(interval, context);
+			}
+		} else {
+			for(int i = 0; i < byStart.size(); i++)
+				visitor.accept(byStart.get(i), context);
 		}
 		
-		if(target.getStart().compareTo(center) == -1 && leftNode != null)
-			result.addAll(leftNode.query(target));
-		if(target.getEnd().compareTo(center) == 1 && rightNode != null)
-			result.addAll(rightNode.query(target));
-		return result;
+		if(start.compareTo(center) < 0 && leftNode != null)
+			leftNode.query(start, end, context, visitor);
+		if(end.compareTo(center) > 0 && rightNode != null)
+			rightNode.query(start, end, context, visitor);
 	}
 	
+	/**
+	 * Perform a stabbing query on the node like {@link #stab(Number, Object, BiConsumer)}, counting its cost
+	 * Kept apart from the plain query so that queries without metrics pay nothing for counting
+	 * @param cost receives the number of nodes visited and intervals scanned and returned
+	 */
+	<C> void stab(N queryValue, C context, BiConsumer<? super Interval<N, Type>, ? super C> visitor, TreeMetrics.QueryCost cost) {
+		IntervalNode<N, Type> node = this;
+		while(node != null) {
+			cost.nodes++;
+			int comparison = queryValue.compareTo(node.center);
+			if(comparison < 0) {
+				for(int i = 0; i < node.byStart.size(); i++) {
+					Interval<N, Type> interval = node.byStart.get(i);
+					cost.scanned++;
+					if(interval.getStart().compareTo(queryValue) > 0)
+						break;
+					cost.returned++;
+					visitor.accept(interval, context);
+				}
+				node = node.leftNode;
+			} else if(comparison > 0) {
+				for(int i = 0; i < node.byEnd.size(); i++) {
+					Interval<N, Type> interval = node.byEnd.get(i);
+					cost.scanned++;
+					if(interval.getEnd().compareTo(queryValue) < 0)
+						break;
+					cost.returned++;
+					visitor.accept(interval, context);
+				}
+				node = node.rightNode;
+			} else {
+				cost.scanned += node.byStart.size();
+				cost.returned += node.byStart.size();
+				for(int i = 0; i < node.byStart.size(); i++)
+					visitor.accept(node.byStart.get(i), context);
+				node = null;
+			}
+		}
+	}
+
+	/**
+	 * Perform an interval intersection query on the node like {@link #query(Number, Number, Object, BiConsumer)}, counting its cost
+	 * @param cost receives the number of nodes visited and intervals scanned and returned
+	 */
+	<C> void query(N start, N end, C context, BiConsumer<? super Interval<N, Type>, ? super C> visitor, TreeMetrics.QueryCost cost) {
+		cost.nodes++;
+		if(end.compareTo(center) < 0) {
+			for(int i = 0; i < byStart.size(); i++) {
+				Interval<N, Type> interval = byStart.get(i);
+				cost.scanned++;
+				if(interval.getStart().compareTo(end) > 0)
+					break;
+				cost.returned++;
+				visitor.accept(interval, context);
+			}
+		} else if(start.compareTo(center) > 0) {
+			for(int i = 0; i < byEnd.size(); i++) {
+				Interval<N, Type> interval = byEnd.get(i);
+				cost.scanned++;
+				if(interval.getEnd().compareTo(start) < 0)
+					break;
+				cost.returned++;
+				visitor.accept(interval, context);
+			}
+		} else {
+			cost.scanned += byStart.size();
+			cost.returned += byStart.size();
+			for(int i = 0; i < byStart.size(); i++)
+				visitor.accept(byStart.get(i), context);
+		}
+
+		if(start.compareTo(center) < 0 && leftNode != null)
+			leftNode.query(start, end, context, visitor, cost);
+		if(end.compareTo(center) > 0 && rightNode != null)
+			rightNode.query(start, end, context, visitor, cost);
+	}
+
+	/**
+	 * Perform a stabbing query for a batch of values in one pass over the node's subtree
+	 * Values routed to the same node share its visit, and because they are sorted the matching
+	 * prefix for each value is found by advancing a single cursor rather than rescanning
+	 * @param values the values to query at, sorted ascending
+	 * @param order	 the caller's index for each entry of values
+	 * @param from	 the first entry of values routed to this node
+	 * @param to	 one past the last entry of values routed to this node
+	 * @param visitor receives every interval containing a value, along with the caller's index for that value
+	 */
+	void stabAll(List<N> values, int[] order, int from, int to, ObjIntConsumer<? super Interval<N, Type>> visitor) {
+		int lessEnd = from;
+		while(lessEnd < to && values.get(lessEnd).compareTo(center) < 0)
+			lessEnd++;
+		int equalEnd = lessEnd;
+		while(equalEnd < to && values.get(equalEnd).compareTo(center) == 0)
+			equalEnd++;
+
+		// ascending values left of center match a growing prefix of the start order
+		int matches = 0;
+		for(int i = from; i < lessEnd; i++) {
+			N value = values.get(i);
+			while(matches < byStart.size() && byStart.get(matches).getStart().compareTo(value) <= 0)
+				matches++;
+			for(int j = 0; j < matches; j++)
+				visitor.accept(byStart.get(j), order[i]);
+		}
+
+		for(int i = lessEnd; i < equalEnd; i++) {
+			for(int j = 0; j < byStart.size(); j++)
+				visitor.accept(byStart.get(j), order[i]);
+		}
+
+		// descending values right of center match a growing prefix of the end order
+		matches = 0;
+		for(int i = to - 1; i >= equalEnd; i--) {
+			N value = values.get(i);
+			while(matches < byEnd.size() && byEnd.get(matches).getEnd().compareTo(value) >= 0)
+				matches++;
+			for(int j = 0; j < matches; j++)
+				visitor.accept(byEnd.get(j), order[i]);
+		}
+
+		if(lessEnd > from && leftNode != null)
+			leftNode.stabAll(values, order, from, lessEnd, visitor);
+		if(to > equalEnd && rightNode != null)
+			rightNode.stabAll(values, order, equalEnd, to, visitor);
+	}
+
+	/**
+	 * Find the first interval a stabbing query on the node would return, without visiting the rest
+	 * @param queryValue the queryValue to query at
+	 * @return	   the first interval containing queryValue, or null if there is none
+	 */
+	Interval<N, Type> findFirst(N queryValue) {
+		IntervalNode<N, Type> node = this;
+		while(node != null) {
+			int comparison = queryValue.compareTo(node.center);
+			if(comparison < 0) {
+				if(!node.byStart.isEmpty() && node.byStart.get(0).getStart().compareTo(queryValue) <= 0)
+					return node.byStart.get(0);
+				node = node.leftNode;
+			} else if(comparison > 0) {
+				if(!node.byEnd.isEmpty() && node.byEnd.get(0).getEnd().compareTo(queryValue) >= 0)
+					return node.byEnd.get(0);
+				node = node.rightNode;
+			} else {
+				return node.byStart.isEmpty() ? null : node.byStart.get(0);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Count the intervals a stabbing query on the node would return, without visiting them
+	 * @param queryValue the queryValue to query at
+	 * @return	   the number of intervals containing queryValue
+	 */
+	int count(N queryValue) {
+		int count = 0;
+		IntervalNode<N, Type> node = this;
+		while(node != null) {
+			count += node.countIntersecting(queryValue, queryValue);
+			int comparison = queryValue.compareTo(node.center);
+			node = comparison < 0 ? node.leftNode : comparison > 0 ? node.rightNode : null;
+		}
+		return count;
+	}
+
+	/**
+	 * Count the intervals an interval intersection query on the node would return, without visiting them
+	 * @param start the start of the interval to intersect
+	 * @param end	the end of the interval to intersect
+	 * @return		the number of intervals intersecting [start, end]
+	 */
+	int count(N start, N end) {
+		int count = countIntersecting(start, end);
+		if(start.compareTo(center) < 0 && leftNode != null)
+			count += leftNode.count(start, end);
+		if(end.compareTo(center) > 0 && rightNode != null)
+			count += rightNode.count(start, end);
+		return count;
+	}
+
+	/**
+	 * Perform an interval intersection query on the node, stopping once limit intervals have been visited
+	 * @param start	  the start of the interval to intersect
+	 * @param end	  the end of the interval to intersect
+	 * @param limit	  the most intervals to visit
+	 * @param context passed through to the visitor, so the visitor need not capture state
+	 * @param visitor receives intervals intersecting [start, end], in query order, along with context
+	 * @return		  the number of intervals visited
+	 */
+	<C> int query(N start, N end, int limit, C context, BiConsumer<? super Interval<N, Type>, ? super C> visitor) {
+		List<Interval<N, Type>> order = start.compareTo(center) > 0 ? byEnd : byStart;
+		int visited = Math.min(countIntersecting(start, end), limit);
+		for(int i = 0; i < visited; i++)
+			visitor.accept(order.get(i), context);
+
+		if(visited < limit && start.compareTo(center) < 0 && leftNode != null)
+			visited += leftNode.query(start, end, limit - visited, context, visitor);
+		if(visited < limit && end.compareTo(center) > 0 && rightNode != null)
+			visited += rightNode.query(start, end, limit - visited, context, visitor);
+		return visited;
+	}
+
+	/**
+	 * Count the intervals stored at this node that intersect [start, end]
+	 * The matches always form a prefix of one of the two orders, so a binary search finds them
+	 */
+	int countIntersecting(N start, N end) {
+		if(end.compareTo(center) < 0) {
+			int low = 0;
+			int high = byStart.size();
+			while(low < high) {
+				int middle = (low + high) >>> 1;
+				if(byStart.get(middle).getStart().compareTo(end) <= 0)
+					low = middle + 1;
+				else
+					high = middle;
+			}
+			return low;
+		} else if(start.compareTo(center) > 0) {
+			int low = 0;
+			int high = byEnd.size();
+			while(low < high) {
+				int middle = (low + high) >>> 1;
+				if(byEnd.get(middle).getEnd().compareTo(start) >= 0)
+					low = middle + 1;
+				else
+					high = middle;
+			}
+			return low;
+		}
+		return byStart.size();
+	}
+
 	public N getCenter() {
 		return center;
 	}
@@ -133,32 +453,27 @@ public class IntervalNode<N extends Number & Comparable<N>, Type> {
 	public void setRight(IntervalNode<N, Type> right) {
 		this.rightNode = right;
 	}
-	
+
 	/**
-	 * @param set the set to look on
-	 * @return	  the median of the set, not interpolated
+	 * @return all intervals stored at this node, ordered by start then end
 	 */
-	private N getMedian(SortedSet<N> set) {
-		int i = 0;
-		int middle = set.size() / 2;
-		for(N point : set) {
-			if(i == middle)
-				return point;
-			i++;
-		}
-		return supplier.get();
+	List<Interval<N, Type>> getIntervals() {
+		return byStart;
+	}
+
+	/**
+	 * @return all intervals stored at this node, ordered by descending end
+	 */
+	List<Interval<N, Type>> getIntervalsByEnd() {
+		return byEnd;
 	}
 	
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
 		sb.append(center).append(": ");
-		for(Entry<Interval<N, Type>, List<Interval<N, Type>>> entry : intervals.entrySet()) {
-			sb.append("[").append(entry.getKey().getStart()).append(",").append(entry.getKey().getEnd()).append("]:{");
-			for(Interval<N, Type> interval : entry.getValue()) {
-				sb.append("(").append(interval.getStart()).append(",").append(interval.getEnd()).append(",").append(interval.getData()).append(")");
-			}
-			sb.append("} ");
+		for(Interval<N, Type> interval : byStart) {
+			sb.append("(").append(interval.getStart()).append(",").append(interval.getEnd()).append(",").append(interval.getData()).append(") ");
 		}
 		return sb.toString();
 	}
@@ -174,7 +489,7 @@ public class IntervalNode<N extends Number & Comparable<N>, Type> {
 
         IntervalNode<?, ?> that = (IntervalNode<?, ?>) o;
 
-        return (intervals != null ? intervals.equals(that.intervals) : that.intervals == null) && (center != null ? center.equals(that.center) :
+        return (byStart != null ? byStart.equals(that.byStart) : that.byStart == null) && (center != null ? center.equals(that.center) :
                 that.center == null) && (leftNode != null ? leftNode.equals(that.leftNode) : that.leftNode == null) && (rightNode != null ?
                 rightNode.equals(that.rightNode) : that.rightNode == null);
     }
@@ -182,11 +497,170 @@ public class IntervalNode<N extends Number & Comparable<N>, Type> {
 
     @Override
     public int hashCode() {
-        int result = intervals != null ? intervals.hashCode() : 0;
+        int result = byStart != null ? byStart.hashCode() : 0;
         result = 31 * result + (center != null ? center.hashCode() : 0);
         result = 31 * result + (leftNode != null ? leftNode.hashCode() : 0);
         result = 31 * result + (rightNode != null ? rightNode.hashCode() : 0);
         return result;
     }
-	
+
+	/**
+	 * The intervals of one bulk build, sorted once and then partitioned in place by every node,
+	 * so that each subtree owns the same contiguous slice of every order
+	 */
+	private static final class Presorted<N extends Number & Comparable<N>, Type> {
+
+		/** subtrees and sorts smaller than this are built on the current thread */
+		static final int PARALLEL_CUTOFF = 8192;
+
+		static final byte LEFT = -1;
+		static final byte CENTER = 0;
+		static final byte RIGHT = 1;
+
+		final Interval<N, Type>[] intervals;
+		/** interval indices, ascending by start then end */
+		final int[] byStart;
+		/** interval indices, descending by end, ties in byStart order */
+		final int[] byEnd;
+		/** endpoint ids, twice an interval index for its start plus one for its end, ascending */
+		final int[] endpoints;
+		/** for each endpoint id, the number of distinct endpoints less than it */
+		private final int[] rank;
+		/** which side of the current node each interval falls on */
+		private final byte[] side;
+		/** twice the number of intervals, so each subtree has its own region */
+		private final int[] scratch;
+		final boolean parallel;
+
+		/**
+		 * @param intervalList the intervals to sort
+		 * @param parallel	   true to split the sorts into fork/join tasks, when running in a pool
+		 */
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Presorted(List<Interval<N, Type>> intervalList, boolean parallel) {
+			this.parallel = parallel;
+			intervals = intervalList.toArray(new Interval[0]);
+			int count = intervals.length;
+
+			// the only comparisons of N; everything after works on integer ranks
+			endpoints = new int[2 * count];
+			for(int i = 0; i < endpoints.length; i++)
+				endpoints[i] = i;
+			sort(endpoints, (a, b) -> endpoint(a).compareTo(endpoint(b)));
+			rank = new int[2 * count];
+			for(int i = 1; i < endpoints.length; i++)
+				rank[endpoints[i]] = rank[endpoints[i - 1]] + (endpoint(endpoints[i]).compareTo(endpoint(endpoints[i - 1])) != 0 ? 1 : 0);
+
+			byStart = new int[count];
+			for(int i = 0; i < count; i++)
+				byStart[i] = i;
+			sort(byStart, (a, b) -> rank[2 * a] != rank[2 * b] ? Integer.compare(rank[2 * a], rank[2 * b]) : Integer.compare(rank[2 * a + 1], rank[2 * b + 1]));
+			byEnd = byStart.clone();
+			sort(byEnd, (a, b) -> Integer.compare(rank[2 * b + 1], rank[2 * a + 1]));
+
+			side = new byte[count];
+			scratch = new int[2 * count];
+		}
+
+		/**
+		 * @return the endpoint id of the median of the distinct endpoints of the intervals in
+		 *		   [from, to), not interpolated; of equal endpoints, the first inserted is returned
+		 */
+		int median(int from, int to) {
+			int distinct = 1;
+			for(int i = 2 * from + 1; i < 2 * to; i++) {
+				if(rank[endpoints[i]] != rank[endpoints[i - 1]])
+					distinct++;
+			}
+			int middle = distinct / 2;
+			int seen = 0;
+			for(int i = 2 * from + 1; i < 2 * to && seen < middle; i++) {
+				if(rank[endpoints[i]] != rank[endpoints[i - 1]] && ++seen == middle)
+					return endpoints[i];
+			}
+			return endpoints[2 * from];
+		}
+
+		/**
+		 * Record which side of a node centered on the given endpoint each interval in [from, to) falls on
+		 */
+		void split(int from, int to, int center) {
+			int centerRank = rank[center];
+			for(int i = from; i < to; i++) {
+				int index = byStart[i];
+				if(rank[2 * index + 1] < centerRank)
+					side[index] = LEFT;
+				else if(rank[2 * index] > centerRank)
+					side[index] = RIGHT;
+				else
+					side[index] = CENTER;
+			}
+		}
+
+		/**
+		 * Stable-partition a slice of one order: left entries first, then right entries,
+		 * with center entries removed and appended to center if it is not null
+		 * @param order	 the order to partition
+		 * @param from	 the start of the slice, inclusive
+		 * @param to	 the end of the slice, exclusive
+		 * @param stride the number of entries per interval
+		 * @param center receives the center intervals, or null to drop them
+		 * @return		 the number of intervals placed on the left
+		 */
+		int partition(int[] order, int from, int to, int stride, List<Interval<N, Type>> center) {
+			// a subtree over intervals [a, b) only ever touches scratch[2a, 2b)
+			int base = 2 * from / stride;
+			int left = from;
+			int right = base;
+			for(int i = from; i < to; i++) {
+				int id = order[i];
+				byte s = side[id / stride];
+				if(s == LEFT)
+					order[left++] = id;
+				else if(s == RIGHT)
+					scratch[right++] = id;
+				else if(center != null)
+					center.add(intervals[id]);
+			}
+			System.arraycopy(scratch, base, order, left, right - base);
+			return (left - from) / stride;
+		}
+
+		N endpoint(int id) {
+			Interval<N, Type> interval = intervals[id >> 1];
+			return (id & 1) == 0 ? interval.getStart() : interval.getEnd();
+		}
+
+		/**
+		 * Stable merge sort of ints under the given comparator
+		 */
+		private void sort(int[] values, IntBinaryOperator comparator) {
+			if(values.length > 1)
+				mergeSort(values, values.clone(), 0, values.length, comparator);
+		}
+
+		private void mergeSort(int[] dest, int[] src, int from, int to, IntBinaryOperator comparator) {
+			if(to - from < 2)
+				return;
+			int mid = (from + to) >>> 1;
+			if(parallel && to - from >= PARALLEL_CUTOFF) {
+				ForkJoinTask.invokeAll(
+						ForkJoinTask.adapt(() -> mergeSort(src, dest, from, mid, comparator)),
+						ForkJoinTask.adapt(() -> mergeSort(src, dest, mid, to, comparator)));
+			} else {
+				mergeSort(src, dest, from, mid, comparator);
+				mergeSort(src, dest, mid, to, comparator);
+			}
+
+			int i = from;
+			int j = mid;
+			for(int k = from; k < to; k++) {
+				if(j >= to || (i < mid && comparator.applyAsInt(src[i], src[j]) <= 0))
+					dest[k] = src[i++];
+				else
+					dest[k] = src[j++];
+			}
+		}
+	}
+
 }
@@ -0,0 +1,231 @@
+package intervalTree;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The IntervalSummary class answers aggregate questions about a fixed set of intervals,
+ * how many intersect a range, how many overlap at most at one point of it and how much of
+ * it they cover, in logarithmic time and without visiting the intervals themselves. It also
+ * finds the intervals nearest to a value that none of them contain.
+ *
+ * It holds the intervals sorted by start and sorted by end, the number of intervals
+ * containing each distinct endpoint, with a segment tree over those counts for range
+ * maxima, and the union of the intervals as sorted disjoint segments with the running
+ * total of their lengths.
+ */
+final class IntervalSummary<N extends Number & Comparable<N>, Type> {
+
+	/** intervals ascending by start, then by end */
+	private final Interval<N, Type>[] byStart;
+	/** intervals ascending by end, then by start */
+	private final Interval<N, Type>[] byEnd;
+	private final N[] starts;
+	private final N[] ends;
+	/** for every prefix of byStart, the index of its interval ending last, the latest starting of those on a tie */
+	private final int[] floorIndex;
+	/** for every suffix of byEnd, the index of its interval starting first, the earliest ending of those on a tie */
+	private final int[] ceilingIndex;
+	/** distinct endpoints, ascending */
+	private final N[] points;
+	/** number of intervals containing each of points */
+	private final int[] depthAt;
+	/** number of intervals containing the values strictly between each of points and the next */
+	private final int[] depthAfter;
+	/** segment tree of depthAt, leaves starting at points.length */
+	private final int[] depthMax;
+	private final N[] unionStarts;
+	private final N[] unionEnds;
+	/** total length of the union segments before each one, and of all of them last */
+	private final double[] unionLengths;
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	IntervalSummary(List<Interval<N, Type>> intervals) {
+		int count = intervals.size();
+		byStart = intervals.toArray(new Interval[0]);
+		Arrays.sort(byStart);
+		byEnd = byStart.clone();
+		Arrays.sort(byEnd, Comparator.comparing(Interval<N, Type>::getEnd).thenComparing(Interval::getStart));
+		starts = (N[]) new Number[count];
+		ends = (N[]) new Number[count];
+		for(int i = 0; i < count; i++) {
+			starts[i] = byStart[i].getStart();
+			ends[i] = byEnd[i].getEnd();
+		}
+
+		floorIndex = new int[count];
+		for(int i = 1; i < count; i++) {
+			int best = floorIndex[i - 1];
+			floorIndex[i] = byStart[i].getEnd().compareTo(byStart[best].getEnd()) >= 0 ? i : best;
+		}
+		ceilingIndex = new int[count];
+		if(count > 0)
+			ceilingIndex[count - 1] = count - 1;
+		for(int i = count - 2; i >= 0; i--) {
+			int best = ceilingIndex[i + 1];
+			ceilingIndex[i] = byEnd[i].getStart().compareTo(byEnd[best].getStart()) <= 0 ? i : best;
+		}
+
+		// the union, from the intervals in order of start
+		N[] segmentStarts = (N[]) new Number[count];
+		N[] segmentEnds = (N[]) new Number[count];
+		int segments = 0;
+		for(int i = 0; i < count; i++) {
+			N end = byStart[i].getEnd();
+			if(segments > 0 && starts[i].compareTo(segmentEnds[segments - 1]) <= 0) {
+				if(end.compareTo(segmentEnds[segments - 1]) > 0)
+					segmentEnds[segments - 1] = end;
+			} else {
+				segmentStarts[segments] = starts[i];
+				segmentEnds[segments] = end;
+				segments++;
+			}
+		}
+		unionStarts = Arrays.copyOf(segmentStarts, segments);
+		unionEnds = Arrays.copyOf(segmentEnds, segments);
+		unionLengths = new double[segments + 1];
+		for(int i = 0; i < segments; i++)
+			unionLengths[i + 1] = unionLengths[i] + length(unionStarts[i], unionEnds[i]);
+
+		// the depth profile, merging the sorted starts and ends
+		N[] distinct = (N[]) new Number[2 * count];
+		int[] at = new int[2 * count];
+		int[] after = new int[2 * count];
+		int pointCount = 0;
+		int s = 0;
+		int e = 0;
+		while(s < count || e < count) {
+			N point = e == count || (s < count && starts[s].compareTo(ends[e]) <= 0) ? starts[s] : ends[e];
+			while(s < count && starts[s].compareTo(point) == 0)
+				s++;
+			// e is the number of ends below point, so the intervals ending at it still count
+			at[pointCount] = s - e;
+			while(e < count && ends[e].compareTo(point) == 0)
+				e++;
+			after[pointCount] = s - e;
+			distinct[pointCount++] = point;
+		}
+		points = Arrays.copyOf(distinct, pointCount);
+		depthAt = Arrays.copyOf(at, pointCount);
+		depthAfter = Arrays.copyOf(after, pointCount);
+		depthMax = new int[2 * pointCount];
+		System.arraycopy(depthAt, 0, depthMax, pointCount, pointCount);
+		for(int i = pointCount - 1; i > 0; i--)
+			depthMax[i] = Math.max(depthMax[2 * i], depthMax[2 * i + 1]);
+	}
+
+	/**
+	 * @return the number of intervals intersecting [start, end]
+	 */
+	int count(N start, N end) {
+		// every interval not ending before start nor starting after end intersects; no interval does both
+		return starts.length - firstAtLeast(ends, start) - (starts.length - firstAbove(starts, end));
+	}
+
+	/**
+	 * @return the largest number of intervals containing any one value of [start, end]
+	 */
+	int maxDepth(N start, N end) {
+		int from = firstAtLeast(points, start);
+		int to = firstAbove(points, end);
+		// the depth at start, when it is not an endpoint itself
+		int max = from > 0 && (from == points.length || points[from].compareTo(start) > 0) ? depthAfter[from - 1] : 0;
+		for(int low = from + points.length, high = to + points.length; low < high; low >>>= 1, high >>>= 1) {
+			if((low & 1) != 0)
+				max = Math.max(max, depthMax[low++]);
+			if((high & 1) != 0)
+				max = Math.max(max, depthMax[--high]);
+		}
+		return max;
+	}
+
+	/**
+	 * @return the length of the part of [start, end] inside at least one interval
+	 */
+	double coveredLength(N start, N end) {
+		int first = firstAtLeast(unionEnds, start);
+		int last = firstAbove(unionStarts, end) - 1;
+		if(first > last)
+			return 0;
+		double covered = unionLengths[last + 1] - unionLengths[first];
+		if(unionStarts[first].compareTo(start) < 0)
+			covered -= length(unionStarts[first], start);
+		if(unionEnds[last].compareTo(end) > 0)
+			covered -= length(end, unionEnds[last]);
+		return covered;
+	}
+
+	/**
+	 * @return of the intervals starting at or before value, the one ending last, or null if there is none
+	 */
+	Interval<N, Type> floor(N value) {
+		int count = firstAbove(starts, value);
+		return count == 0 ? null : byStart[floorIndex[count - 1]];
+	}
+
+	/**
+	 * @return of the intervals ending at or after value, the one starting first, or null if there is none
+	 */
+	Interval<N, Type> ceiling(N value) {
+		int from = firstAtLeast(ends, value);
+		return from == ends.length ? null : byEnd[ceilingIndex[from]];
+	}
+
+	/**
+	 * Add the intervals not containing a value to a list, nearest to the value first, until it holds limit intervals
+	 * Distances are compared as differences of doubleValue, and the lower interval goes first on a tie
+	 * @param value	 the value to measure distances from
+	 * @param limit	 the size to fill the list up to
+	 * @param result already holds the intervals containing value, up to limit of them
+	 */
+	void nearest(N value, int limit, List<Interval<N, Type>> result) {
+		double point = value.doubleValue();
+		// intervals ending below value, nearest first
+		int below = firstAtLeast(ends, value) - 1;
+		// intervals starting above value, nearest first
+		int above = firstAbove(starts, value);
+		while(result.size() < limit && (below >= 0 || above < starts.length)) {
+			if(above == starts.length || (below >= 0 && point - ends[below].doubleValue() <= starts[above].doubleValue() - point))
+				result.add(byEnd[below--]);
+			else
+				result.add(byStart[above++]);
+		}
+	}
+
+	private static double length(Number start, Number end) {
+		return end.doubleValue() - start.doubleValue();
+	}
+
+	/**
+	 * @return the index of the first key not less than value in an ascending array
+	 */
+	private static <N extends Comparable<N>> int firstAtLeast(N[] sorted, N value) {
+		int low = 0;
+		int high = sorted.length;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(sorted[middle].compareTo(value) < 0)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * @return the index of the first key greater than value in an ascending array
+	 */
+	private static <N extends Comparable<N>> int firstAbove(N[] sorted, N value) {
+		int low = 0;
+		int high = sorted.length;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(sorted[middle].compareTo(value) <= 0)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+}
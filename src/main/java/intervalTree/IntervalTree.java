@@ -1,8 +1,16 @@
 package intervalTree;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * An Interval Tree is essentially a map from intervals to objects, which
@@ -19,6 +27,11 @@ public class IntervalTree<N extends Number & Comparable<N>, Type> {
 	private boolean inSync;
 	private int size;
 	private Supplier<N> supplier;
+	private ForkJoinPool buildPool;
+	private TreeMetrics metrics;
+	private StabCache<N, Type> cache;
+	private long version;
+	private IntervalSummary<N, Type> summary;
 	
 	/**
 	 * Instantiate a new interval tree with no intervals
@@ -38,18 +51,76 @@ public class IntervalTree<N extends Number & Comparable<N>, Type> {
 	 * @param supplier a lambda initializing a type N number to zero
 	 */
 	public IntervalTree(List<Interval<N, Type>> intervalList, Supplier<N> supplier) {
+		this(intervalList, supplier, null);
+	}
+
+	/**
+	 * Instantiate an interval tree with a preset list of intervals, built in parallel
+	 * @param intervalList the list of intervals to use
+	 * @param supplier a lambda initializing a type N number to zero
+	 * @param buildPool the pool to build this and later rebuilds on, or null to build on the calling thread
+	 */
+	public IntervalTree(List<Interval<N, Type>> intervalList, Supplier<N> supplier, ForkJoinPool buildPool) {
 
 		for (Interval<N, Type> interval : intervalList) {
-			if ( interval.getEnd().compareTo(interval.getStart()) > 0) {
+			if ( interval.getEnd().compareTo(interval.getStart()) < 0) {
 				throw new IllegalArgumentException("beginning of range must be less than end");
 			}
 		}
 
-		this.head = new IntervalNode<>(intervalList, supplier);
+		this.head = buildPool == null ? new IntervalNode<>(intervalList, supplier) : new IntervalNode<>(intervalList, supplier, buildPool);
 		this.intervalList = new ArrayList<>();
 		this.intervalList.addAll(intervalList);
-		this.inSync = false;
+		this.inSync = true;
 		this.size = intervalList.size();
+		this.supplier = supplier;
+		this.buildPool = buildPool;
+	}
+
+	/**
+	 * Build the tree in parallel on a fork/join pool from now on
+	 * The tree built is equal to one built on the calling thread
+	 * @param buildPool the pool to rebuild on, or null to rebuild on the calling thread
+	 */
+	public void setBuildPool(ForkJoinPool buildPool) {
+		this.buildPool = buildPool;
+	}
+
+	/**
+	 * Record the cost of stabbing and range queries, and of rebuilds, from now on
+	 * @param metrics the metrics to record to, or null to stop recording
+	 */
+	public void setMetrics(TreeMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * @return the metrics queries and rebuilds are recorded to, or null if none are
+	 */
+	public TreeMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Answer repeated stabbing queries through get(N) from a cache from now on
+	 * While a cache is attached, get(N) returns unmodifiable lists, which may be shared between callers
+	 * A cache serves one tree at a time, and is emptied when attached
+	 * @param cache the cache to use, or null to query the tree every time
+	 * @throws IllegalStateException if the cache is attached to another tree
+	 */
+	public void setCache(StabCache<N, Type> cache) {
+		if(cache != null)
+			cache.attach(this);
+		if(this.cache != null && this.cache != cache)
+			this.cache.detach(this);
+		this.cache = cache;
+	}
+
+	/**
+	 * @return the cache stabbing queries are answered from, or null if there is none
+	 */
+	public StabCache<N, Type> getCache() {
+		return cache;
 	}
 	
 	/**
@@ -59,13 +130,32 @@ public class IntervalTree<N extends Number & Comparable<N>, Type> {
 	 * @return	   the data associated with all intervals that contain queryValue
 	 */
 	public List<Type> get(N queryValue) {
+		StabCache<N, Type> cache = this.cache;
+		if(cache == null) {
+			List<Type> result = new ArrayList<>();
+			get(queryValue, result);
+			return result;
+		}
 		build();
-		List<Interval<N, Type>> intervals = getIntervals(queryValue);
-		List<Type> result = new ArrayList<>();
-		for(Interval<N, Type> interval : intervals)
-			result.add(interval.getData());
+		List<Type> result = cache.get(queryValue, version);
+		if(result == null) {
+			result = new ArrayList<>();
+			TreeMetrics.stab(metrics, head, queryValue, result, (interval, data) -> data.add(interval.getData()));
+			result = cache.put(queryValue, version, result);
+		}
 		return result;
 	}
+
+	/**
+	 * Perform a stabbing query, appending the associated data to a caller-supplied collection
+	 * Will rebuild the tree if out of sync
+	 * @param queryValue the number to stab
+	 * @param result	 receives the data associated with all intervals that contain queryValue
+	 */
+	public void get(N queryValue, Collection<? super Type> result) {
+		build();
+		TreeMetrics.stab(metrics, head, queryValue, result, (interval, data) -> data.add(interval.getData()));
+	}
 	
 	/**
 	 * Perform a stabbing query, returning the interval objects
@@ -74,8 +164,118 @@ public class IntervalTree<N extends Number & Comparable<N>, Type> {
 	 * @return	   all intervals that contain value
 	 */
 	public List<Interval<N, Type>> getIntervals(N value) {
+		List<Interval<N, Type>> result = new ArrayList<>();
+		getIntervals(value, result);
+		return result;
+	}
+
+	/**
+	 * Perform a stabbing query, appending the interval objects to a caller-supplied collection
+	 * Will rebuild the tree if out of sync
+	 * @param value  the value to stab
+	 * @param result receives all intervals that contain value
+	 */
+	public void getIntervals(N value, Collection<? super Interval<N, Type>> result) {
+		build();
+		TreeMetrics.stab(metrics, head, value, result, (interval, collection) -> collection.add(interval));
+	}
+
+	/**
+	 * Perform a stabbing query, passing every interval object to a consumer without building a result list
+	 * Will rebuild the tree if out of sync
+	 * @param value	   the value to stab
+	 * @param consumer receives all intervals that contain value
+	 */
+	public void stab(N value, Consumer<? super Interval<N, Type>> consumer) {
 		build();
-		return head.stab(value);
+		TreeMetrics.stab(metrics, head, value, consumer, (interval, target) -> target.accept(interval));
+	}
+
+	/**
+	 * Perform a stabbing query, passing every interval object to a visitor without building a result list
+	 * Passing state through context lets the visitor be a non-capturing lambda, so the query allocates nothing
+	 * Will rebuild the tree if out of sync
+	 * @param value	  the value to stab
+	 * @param context passed to the visitor with every interval
+	 * @param visitor receives all intervals that contain value, along with context
+	 */
+	public <C> void stab(N value, C context, BiConsumer<? super Interval<N, Type>, ? super C> visitor) {
+		build();
+		TreeMetrics.stab(metrics, head, value, context, visitor);
+	}
+	
+	/**
+	 * Perform a stabbing query for every value in a batch, returning the associated data
+	 * The batch is answered in one sorted sweep down the tree rather than one descent per value
+	 * Will rebuild the tree if out of sync
+	 * @param queryValues the numbers to stab, in any order
+	 * @return	   for each entry of queryValues, at the same index, the data get would return for it
+	 */
+	public List<List<Type>> getAll(List<N> queryValues) {
+		List<List<Type>> results = new ArrayList<>(queryValues.size());
+		for(int i = 0; i < queryValues.size(); i++)
+			results.add(new ArrayList<>());
+		stabAll(queryValues, (interval, index) -> results.get(index).add(interval.getData()));
+		return results;
+	}
+
+	/**
+	 * Perform a stabbing query for every value in a batch, returning the interval objects
+	 * The batch is answered in one sorted sweep down the tree rather than one descent per value
+	 * Will rebuild the tree if out of sync
+	 * @param queryValues the values to stab, in any order
+	 * @return	   for each entry of queryValues, at the same index, the intervals getIntervals would return for it
+	 */
+	public List<List<Interval<N, Type>>> getAllIntervals(List<N> queryValues) {
+		List<List<Interval<N, Type>>> results = new ArrayList<>(queryValues.size());
+		for(int i = 0; i < queryValues.size(); i++)
+			results.add(new ArrayList<>());
+		stabAll(queryValues, (interval, index) -> results.get(index).add(interval));
+		return results;
+	}
+
+	/**
+	 * Perform a stabbing query for every value in a batch, passing every interval object to a visitor
+	 * Values that are already sorted ascending are not sorted again
+	 * Will rebuild the tree if out of sync
+	 * @param queryValues the values to stab, in any order
+	 * @param visitor	  receives every interval that contains a value, along with the index of that value in queryValues
+	 */
+	public void stabAll(List<N> queryValues, ObjIntConsumer<? super Interval<N, Type>> visitor) {
+		build();
+		int[] order = new int[queryValues.size()];
+		List<N> sorted = sortForSweep(queryValues, order);
+		if(!sorted.isEmpty())
+			head.stabAll(sorted, order, 0, sorted.size(), visitor);
+	}
+
+	/**
+	 * Sort a batch of query values, recording where each sorted value came from
+	 * @param values the values to sort
+	 * @param order	 filled with the index in values of each entry in the returned list
+	 * @return the values in ascending order, or values itself if already sorted
+	 */
+	private List<N> sortForSweep(List<N> values, int[] order) {
+		boolean sorted = true;
+		for(int i = 0; i < order.length; i++) {
+			order[i] = i;
+			if(i > 0 && values.get(i - 1).compareTo(values.get(i)) > 0)
+				sorted = false;
+		}
+		if(sorted)
+			return values;
+
+		Integer[] boxedOrder = new Integer[order.length];
+		for(int i = 0; i < order.length; i++)
+			boxedOrder[i] = i;
+		Arrays.sort(boxedOrder, (a, b) -> values.get(a).compareTo(values.get(b)));
+
+		List<N> result = new ArrayList<>(order.length);
+		for(int i = 0; i < order.length; i++) {
+			order[i] = boxedOrder[i];
+			result.add(values.get(order[i]));
+		}
+		return result;
 	}
 	
 	/**
@@ -86,15 +286,24 @@ public class IntervalTree<N extends Number & Comparable<N>, Type> {
 	 * @return	  	the data associated with all intervals that intersect target
 	 */
 	public List<Type> get(N start, N end) {
+		List<Type> result = new ArrayList<>();
+		get(start, end, result);
+		return result;
+	}
+
+	/**
+	 * Perform an interval query, appending the associated data to a caller-supplied collection
+	 * Will rebuild the tree if out of sync
+	 * @param start	 the start of the interval to check
+	 * @param end	 the end of the interval to check
+	 * @param result receives the data associated with all intervals that intersect target
+	 */
+	public void get(N start, N end, Collection<? super Type> result) {
 		if ( start.compareTo(end) > 0) {
 			throw new IllegalArgumentException("beginning of range must be less than end");
 		}
 		build();
-		List<Interval<N, Type>> intervals = getIntervals(start, end);
-		List<Type> result = new ArrayList<>();
-		for(Interval<N, Type> interval : intervals)
-			result.add(interval.getData());
-		return result;
+		TreeMetrics.query(metrics, head, start, end, result, (interval, data) -> data.add(interval.getData()));
 	}
 	
 	/**
@@ -105,8 +314,269 @@ public class IntervalTree<N extends Number & Comparable<N>, Type> {
 	 * @return	  	all intervals that intersect target
 	 */
 	public List<Interval<N, Type>> getIntervals(N start, N end) {
+		List<Interval<N, Type>> result = new ArrayList<>();
+		getIntervals(start, end, result);
+		return result;
+	}
+
+	/**
+	 * Perform an interval query, appending the interval objects to a caller-supplied collection
+	 * Will rebuild the tree if out of sync
+	 * @param start	 the start of the interval to check
+	 * @param end	 the end of the interval to check
+	 * @param result receives all intervals that intersect target
+	 */
+	public void getIntervals(N start, N end, Collection<? super Interval<N, Type>> result) {
+		build();
+		TreeMetrics.query(metrics, head, start, end, result, (interval, collection) -> collection.add(interval));
+	}
+
+	/**
+	 * Perform an interval query, passing every interval object to a consumer without building a result list
+	 * Will rebuild the tree if out of sync
+	 * @param start	   the start of the interval to check
+	 * @param end	   the end of the interval to check
+	 * @param consumer receives all intervals that intersect target
+	 */
+	public void query(N start, N end, Consumer<? super Interval<N, Type>> consumer) {
+		build();
+		TreeMetrics.query(metrics, head, start, end, consumer, (interval, target) -> target.accept(interval));
+	}
+
+	/**
+	 * Perform an interval query, passing every interval object to a visitor without building a result list
+	 * Passing state through context lets the visitor be a non-capturing lambda, so the query allocates nothing
+	 * Will rebuild the tree if out of sync
+	 * @param start	  the start of the interval to check
+	 * @param end	  the end of the interval to check
+	 * @param context passed to the visitor with every interval
+	 * @param visitor receives all intervals that intersect target, along with context
+	 */
+	public <C> void query(N start, N end, C context, BiConsumer<? super Interval<N, Type>, ? super C> visitor) {
 		build();
-		return head.query(new Interval<N, Type>(start, end, null));
+		TreeMetrics.query(metrics, head, start, end, context, visitor);
+	}
+	
+	/**
+	 * Perform an interval query, returning the associated data of at most limit intervals
+	 * Stops searching the tree as soon as limit intervals have been found
+	 * Will rebuild the tree if out of sync
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @param limit the most results to return
+	 * @return	  	the data associated with the first limit intervals that intersect target
+	 */
+	public List<Type> get(N start, N end, int limit) {
+		if ( start.compareTo(end) > 0) {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+		build();
+		List<Type> result = new ArrayList<>(Math.min(limit, 16));
+		if(limit > 0)
+			head.query(start, end, limit, result, (interval, data) -> data.add(interval.getData()));
+		return result;
+	}
+
+	/**
+	 * Perform a stabbing query lazily, as a stream of the interval objects in the order getIntervals returns them
+	 * The tree is only walked as far as the stream is consumed, and parallel streams split it by subtree
+	 * Will rebuild the tree if out of sync; the stream keeps reading the tree as built at the time of the call
+	 * @param value the value to stab
+	 * @return	   a stream of all intervals that contain value
+	 */
+	public Stream<Interval<N, Type>> streamStab(N value) {
+		build();
+		return StreamSupport.stream(new QuerySpliterator<>(head, value, value, size), false);
+	}
+
+	/**
+	 * Perform an interval query lazily, as a stream of the interval objects in the order getIntervals returns them
+	 * The tree is only walked as far as the stream is consumed, and parallel streams split it by subtree
+	 * Will rebuild the tree if out of sync; the stream keeps reading the tree as built at the time of the call
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	a stream of all intervals that intersect target
+	 */
+	public Stream<Interval<N, Type>> stream(N start, N end) {
+		if ( start.compareTo(end) > 0) {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+		build();
+		return StreamSupport.stream(new QuerySpliterator<>(head, start, end, size), false);
+	}
+
+	/**
+	 * Find every pair of intersecting intervals between this tree and another, passing each pair to a visitor
+	 * Sweeps both trees' intervals in order of start instead of querying one tree once per interval
+	 * Will rebuild both trees if out of sync
+	 * @param other	  the tree to join with
+	 * @param visitor receives every interval of this tree along with every interval of other it intersects, in no particular order
+	 */
+	public <T> void join(IntervalTree<N, T> other, BiConsumer<? super Interval<N, Type>, ? super Interval<N, T>> visitor) {
+		build();
+		other.build();
+		new IntervalJoin<>(head, intervalList, other.head, other.intervalList, visitor).run();
+	}
+
+	/**
+	 * Find every pair of intersecting intervals between this tree and another in parallel, passing each pair to a visitor
+	 * The key space is split into ranges joined concurrently, so the visitor must be safe to call from many threads
+	 * Will rebuild both trees if out of sync
+	 * @param other	  the tree to join with
+	 * @param visitor receives every interval of this tree along with every interval of other it intersects, in no particular order
+	 * @param pool	  the pool to join on
+	 */
+	public <T> void join(IntervalTree<N, T> other, BiConsumer<? super Interval<N, Type>, ? super Interval<N, T>> visitor, ForkJoinPool pool) {
+		build();
+		other.build();
+		new IntervalJoin<>(head, intervalList, other.head, other.intervalList, visitor).run(pool);
+	}
+
+	/**
+	 * Determine whether any interval contains a value, descending the tree no further than the first match
+	 * Will rebuild the tree if out of sync
+	 * @param value the value to stab
+	 * @return	   true if at least one interval contains value
+	 */
+	public boolean containsAny(N value) {
+		build();
+		return head.findFirst(value) != null;
+	}
+
+	/**
+	 * Perform a stabbing query for only the first interval get would return
+	 * Will rebuild the tree if out of sync
+	 * @param value the value to stab
+	 * @return	   the data associated with the first interval that contains value, or null if there is none
+	 */
+	public Type findFirst(N value) {
+		Interval<N, Type> interval = findFirstInterval(value);
+		return interval != null ? interval.getData() : null;
+	}
+
+	/**
+	 * Perform a stabbing query for only the first interval getIntervals would return
+	 * Will rebuild the tree if out of sync
+	 * @param value the value to stab
+	 * @return	   the first interval that contains value, or null if there is none
+	 */
+	public Interval<N, Type> findFirstInterval(N value) {
+		build();
+		return head.findFirst(value);
+	}
+
+	/**
+	 * Count the intervals that contain a value without collecting them
+	 * Will rebuild the tree if out of sync
+	 * @param value the value to stab
+	 * @return	   the number of intervals that contain value
+	 */
+	public int count(N value) {
+		build();
+		return head.count(value);
+	}
+
+	/**
+	 * Count the intervals that intersect a range without collecting them
+	 * Will rebuild the tree if out of sync
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	the number of intervals that intersect target
+	 */
+	public int count(N start, N end) {
+		if ( start.compareTo(end) > 0) {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+		build();
+		return head.count(start, end);
+	}
+
+	/**
+	 * Count the intervals that intersect a range like count(start, end), in logarithmic time however many match
+	 * Will rebuild the tree if out of sync; the first aggregate query after a rebuild prepares a summary of the intervals
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	the number of intervals that intersect target
+	 */
+	public int overlapCount(N start, N end) {
+		return summary(start, end).count(start, end);
+	}
+
+	/**
+	 * Find the largest number of intervals overlapping at any one value of a range, in logarithmic time
+	 * Will rebuild the tree if out of sync; the first aggregate query after a rebuild prepares a summary of the intervals
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	the most intervals containing a single value of target
+	 */
+	public int maxDepth(N start, N end) {
+		return summary(start, end).maxDepth(start, end);
+	}
+
+	/**
+	 * Measure how much of a range lies inside at least one interval, in logarithmic time
+	 * Lengths are differences of the doubleValue of endpoints, so [0, 10] has length 10 whatever the key type
+	 * Will rebuild the tree if out of sync; the first aggregate query after a rebuild prepares a summary of the intervals
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	the length of the part of target covered by the union of all intervals
+	 */
+	public double coveredLength(N start, N end) {
+		return summary(start, end).coveredLength(start, end);
+	}
+
+	/**
+	 * Find the interval nearest to a value from below: of the intervals starting at or before it, the one ending last
+	 * This is an interval containing value if there is one, and otherwise the closest interval below it
+	 * Will rebuild the tree if out of sync; the first nearest or aggregate query after a rebuild prepares a summary of the intervals
+	 * @param value the value to search from
+	 * @return	   the interval ending last among those starting at or before value, or null if there is none
+	 */
+	public Interval<N, Type> floorInterval(N value) {
+		return summary().floor(value);
+	}
+
+	/**
+	 * Find the interval nearest to a value from above: of the intervals ending at or after it, the one starting first
+	 * This is an interval containing value if there is one, and otherwise the closest interval above it
+	 * Will rebuild the tree if out of sync; the first nearest or aggregate query after a rebuild prepares a summary of the intervals
+	 * @param value the value to search from
+	 * @return	   the interval starting first among those ending at or after value, or null if there is none
+	 */
+	public Interval<N, Type> ceilingInterval(N value) {
+		return summary().ceiling(value);
+	}
+
+	/**
+	 * Find the k intervals nearest to a value, those containing it first, then the others by distance
+	 * Distances are compared as differences of the doubleValue of endpoints
+	 * Will rebuild the tree if out of sync; the first nearest or aggregate query after a rebuild prepares a summary of the intervals
+	 * @param value the value to search from
+	 * @param k	    the most intervals to return
+	 * @return	   	up to k intervals, nearest to value first
+	 */
+	public List<Interval<N, Type>> nearest(N value, int k) {
+		IntervalSummary<N, Type> summary = summary();
+		List<Interval<N, Type>> result = new ArrayList<>(Math.min(k, 16));
+		if(k > 0) {
+			head.query(value, value, k, result, (interval, list) -> list.add(interval));
+			summary.nearest(value, k, result);
+		}
+		return result;
+	}
+
+	private IntervalSummary<N, Type> summary(N start, N end) {
+		if ( start.compareTo(end) > 0) {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+		return summary();
+	}
+
+	private IntervalSummary<N, Type> summary() {
+		build();
+		if(summary == null)
+			summary = new IntervalSummary<>(intervalList);
+		return summary;
 	}
 	
 	/**
@@ -138,6 +608,21 @@ public class IntervalTree<N extends Number & Comparable<N>, Type> {
 			throw new IllegalArgumentException("beginning of range must be less than end");
 		}
 	}
+
+	/**
+	 * Remove one interval equal to the given interval object from the interval tree's list
+	 * Will not rebuild the tree until the next query or call to build
+	 * Use a {@link DynamicIntervalTree} if removals are frequent
+	 * @param interval the interval object to remove
+	 * @return true if the list contained the interval
+	 */
+	public boolean removeInterval(Interval<N, Type> interval) {
+		if(intervalList.remove(interval)) {
+			inSync = false;
+			return true;
+		}
+		return false;
+	}
 	
 	/**
 	 * Determine whether this interval tree is currently a reflection of all intervals in the interval list
@@ -151,14 +636,36 @@ public class IntervalTree<N extends Number & Comparable<N>, Type> {
 	 * Build the interval tree to reflect the list of intervals,
 	 * Will not run if this is currently in sync
 	 */
-	private void build() {
+	void build() {
 		if(!inSync) {
-			head = new IntervalNode<>(intervalList, supplier);
+			long startNanos = metrics != null ? System.nanoTime() : 0;
+			head = buildPool == null ? new IntervalNode<>(intervalList, supplier) : new IntervalNode<>(intervalList, supplier, buildPool);
+			if(metrics != null)
+				metrics.recordRebuild(System.nanoTime() - startNanos, head);
 			inSync = true;
 			size = intervalList.size();
+			version++;
+			summary = null;
 		}
 	}
 	
+	/**
+	 * Compile the interval tree into an immutable, array-backed copy for read-only workloads
+	 * Will rebuild the tree if out of sync; later changes to this tree are not reflected in the copy
+	 * @return a frozen copy of the current interval tree
+	 */
+	public FrozenIntervalTree<N, Type> freeze() {
+		build();
+		return new FrozenIntervalTree<>(head, size);
+	}
+
+	/**
+	 * @return the number of times the tree has been built, which changes whenever query results may change
+	 */
+	public long version() {
+		return version;
+	}
+
 	/**
 	 * @return the number of entries in the currently built interval tree
 	 */
@@ -0,0 +1,102 @@
+package intervalTree;
+
+/**
+ * The LongInterval class maintains an interval with primitive long endpoints
+ * and some associated data
+ *
+ * @param <Type> The type of data being stored
+ */
+public class LongInterval<Type> implements Comparable<LongInterval<Type>> {
+
+	private long start;
+	private long end;
+	private Type data;
+
+	public LongInterval(long start, long end, Type data) {
+		this.start = start;
+		this.end = end;
+		this.data = data;
+	}
+
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+
+		LongInterval<?> other = (LongInterval<?>) o;
+
+		return start == other.getStart() && end == other.getEnd() && (data != null ? data.equals(other.getData()) : other.getData() == null);
+	}
+
+
+	@Override
+	public int hashCode() {
+		int result = Long.hashCode(start);
+		result = 31 * result + Long.hashCode(end);
+		result = 31 * result + (data != null ? data.hashCode() : 0);
+		return result;
+	}
+
+
+	long getStart() {
+		return start;
+	}
+
+	public void setStart(long start) {
+		this.start = start;
+	}
+
+	long getEnd() {
+		return end;
+	}
+
+	public void setEnd(long end) {
+		this.end = end;
+	}
+
+	Type getData() {
+		return data;
+	}
+
+	public void setData(Type data) {
+		this.data = data;
+	}
+
+	/**
+	 * @param queryValue
+	 * @return	true if this interval contains queryValue (inclusive)
+	 */
+	boolean contains(long queryValue) {
+		return queryValue <= end && queryValue >= start;
+	}
+
+	/**
+	 * @param other
+	 * @return	return true if this interval intersects other
+	 */
+	boolean intersects(LongInterval<?> other) {
+		return other.getEnd() >= start && other.getStart() <= end;
+	}
+
+	/**
+	 * Return -1 if this interval's start is less than the other, 1 if greater
+	 * In the event of a tie, -1 if this interval's end is less than the other, 1 if greater, 0 if same
+	 * @param other
+	 * @return 1 or -1
+	 */
+	@Override
+	public int compareTo(LongInterval<Type> other) {
+		int startComparison = Long.compare(start, other.getStart());
+		if (startComparison != 0) {
+			return startComparison;
+		} else {
+			return Long.compare(end, other.getEnd());
+		}
+	}
+
+}
@@ -0,0 +1,333 @@
+package intervalTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A LongIntervalTree is an {@link IntervalTree} specialised for primitive long
+ * endpoints. Endpoints are kept in parallel long arrays instead of boxed
+ * {@link Interval} objects, and queries compare them directly rather than
+ * through {@link Comparable#compareTo}.
+ *
+ * @param <Type> the type of objects to associate
+ */
+public class LongIntervalTree<Type> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private LongIntervalNode head;
+	private long[] starts;
+	private long[] ends;
+	private Payloads data;
+	private int count;
+	private boolean inSync;
+	private int size;
+
+	/**
+	 * Instantiate a new interval tree with no intervals
+	 */
+	public LongIntervalTree() {
+		this.head = new LongIntervalNode();
+		this.starts = new long[DEFAULT_CAPACITY];
+		this.ends = new long[DEFAULT_CAPACITY];
+		this.data = new Payloads(DEFAULT_CAPACITY, false);
+		this.count = 0;
+		this.inSync = false;
+		this.size = 0;
+	}
+
+	/**
+	 * Instantiate an interval tree with a preset list of intervals
+	 * @param intervalList the list of intervals to use
+	 */
+	public LongIntervalTree(List<LongInterval<Type>> intervalList) {
+		int capacity = Math.max(intervalList.size(), DEFAULT_CAPACITY);
+		this.starts = new long[capacity];
+		this.ends = new long[capacity];
+		this.data = new Payloads(capacity, false);
+
+		for (LongInterval<Type> interval : intervalList) {
+			addInterval(interval.getStart(), interval.getEnd(), interval.getData());
+		}
+
+		build();
+	}
+
+	/**
+	 * Perform a stabbing query, returning the associated data
+	 * Will rebuild the tree if out of sync
+	 * @param queryValue the number to stab
+	 * @return	   the data associated with all intervals that contain queryValue
+	 */
+	public List<Type> get(long queryValue) {
+		build();
+		List<Type> result = new ArrayList<>();
+		head.stab(queryValue, starts, ends, index -> result.add(dataAt(index)));
+		return result;
+	}
+
+	/**
+	 * Perform a stabbing query, returning the interval objects
+	 * Will rebuild the tree if out of sync
+	 * @param value the value to stab
+	 * @return	   all intervals that contain value
+	 */
+	public List<LongInterval<Type>> getIntervals(long value) {
+		build();
+		List<LongInterval<Type>> result = new ArrayList<>();
+		head.stab(value, starts, ends, index -> result.add(intervalAt(index)));
+		return result;
+	}
+
+	/**
+	 * Perform an interval query, returning the associated data
+	 * Will rebuild the tree if out of sync
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	the data associated with all intervals that intersect target
+	 */
+	public List<Type> get(long start, long end) {
+		if (start > end) {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+		build();
+		List<Type> result = new ArrayList<>();
+		head.query(start, end, starts, ends, index -> result.add(dataAt(index)));
+		return result;
+	}
+
+	/**
+	 * Perform an interval query, returning the interval objects
+	 * Will rebuild the tree if out of sync
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	all intervals that intersect target
+	 */
+	public List<LongInterval<Type>> getIntervals(long start, long end) {
+		build();
+		List<LongInterval<Type>> result = new ArrayList<>();
+		head.query(start, end, starts, ends, index -> result.add(intervalAt(index)));
+		return result;
+	}
+
+	/**
+	 * Add an interval object to the interval tree's list
+	 * Will not rebuild the tree until the next query or call to build
+	 * @param interval the interval object to add
+	 */
+	public void addInterval(LongInterval<Type> interval) {
+		addInterval(interval.getStart(), interval.getEnd(), interval.getData());
+	}
+
+	/**
+	 * Add an interval object to the interval tree's list
+	 * Will not rebuild the tree until the next query or call to build
+	 * @param begin the beginning of the interval
+	 * @param end	the end of the interval
+	 * @param data	the data to associate
+	 */
+	public void addInterval(long begin, long end, Type data) {
+		if (end >= begin) {
+			inSync = false;
+			ensureCapacity(count + 1);
+			this.starts[count] = begin;
+			this.ends[count] = end;
+			this.data.set(count, data);
+			count++;
+		} else {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+	}
+
+	/**
+	 * Store payloads dictionary encoded from now on, or plainly again
+	 * Encoded, every distinct payload is kept once and each interval only keeps its ordinal in the dictionary:
+	 * a byte while there are at most 256 distinct payloads, a short up to 65536 and an int beyond.
+	 * Queries return the same data either way
+	 * @param encoded true to encode payloads against a dictionary
+	 */
+	public void setDictionaryEncoded(boolean encoded) {
+		if(encoded != data.isEncoded())
+			data = data.reencode(count, encoded);
+	}
+
+	/**
+	 * @return true if payloads are stored dictionary encoded
+	 */
+	public boolean isDictionaryEncoded() {
+		return data.isEncoded();
+	}
+
+	/**
+	 * @return the number of distinct payloads if they are stored dictionary encoded, otherwise -1
+	 */
+	public int dictionarySize() {
+		return data.dictionarySize();
+	}
+
+	/**
+	 * Determine whether this interval tree is currently a reflection of all intervals in the interval list
+	 * @return true if no changes have been made since the last build
+	 */
+	public boolean inSync() {
+		return inSync;
+	}
+
+	/**
+	 * Build the interval tree to reflect the list of intervals,
+	 * Will not run if this is currently in sync
+	 */
+	void build() {
+		if(!inSync) {
+			if(count == 0) {
+				head = new LongIntervalNode();
+			} else {
+				int[] indices = new int[count];
+				for(int i = 0; i < count; i++)
+					indices[i] = i;
+				head = new LongIntervalNode(indices, count, starts, ends);
+			}
+			inSync = true;
+			size = count;
+		}
+	}
+
+	/**
+	 * @return the number of entries in the currently built interval tree
+	 */
+	public int currentSize() {
+		return size;
+	}
+
+	/**
+	 * @return the number of entries in the interval list, equal to .size() if inSync()
+	 */
+	public int listSize() {
+		return count;
+	}
+
+	/**
+	 * Add a batch of intervals to the interval tree's list, already checked to have end &gt;= start
+	 * Will not rebuild the tree until the next query or call to build
+	 * @param starts the beginning of every interval
+	 * @param ends	 the end of every interval
+	 * @param data	 the data to associate with every interval
+	 * @param count	 the number of intervals to add from the start of the arrays
+	 */
+	void append(long[] starts, long[] ends, Object[] data, int count) {
+		if(count == 0)
+			return;
+		inSync = false;
+		ensureCapacity(this.count + count);
+		System.arraycopy(starts, 0, this.starts, this.count, count);
+		System.arraycopy(ends, 0, this.ends, this.count, count);
+		this.data.set(this.count, data, count);
+		this.count += count;
+	}
+
+	/**
+	 * @return the number of intervals the interval list has room for without growing
+	 */
+	int capacity() {
+		return starts.length;
+	}
+
+	/**
+	 * Make room for a number of intervals in the interval list at once, rather than growing to it
+	 * @param capacity the number of intervals to make room for
+	 */
+	void reserve(int capacity) {
+		if(capacity > starts.length)
+			resize(capacity);
+	}
+
+	/**
+	 * Release the spare capacity of the interval list, unless it is small
+	 * Trimming holds both the old and the new arrays until it is done, so it is skipped
+	 * when it would free less than an eighth of the intervals held
+	 */
+	void trimToSize() {
+		if(starts.length - count > count >> 3)
+			resize(count);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Type dataAt(int index) {
+		return (Type) data.get(index);
+	}
+
+	private LongInterval<Type> intervalAt(int index) {
+		return new LongInterval<>(starts[index], ends[index], dataAt(index));
+	}
+
+	private void ensureCapacity(int capacity) {
+		if(capacity > starts.length)
+			resize(Math.max(capacity, starts.length + (starts.length >> 1)));
+	}
+
+	private void resize(int capacity) {
+		starts = Arrays.copyOf(starts, capacity);
+		ends = Arrays.copyOf(ends, capacity);
+		data.resize(capacity);
+	}
+
+	@Override
+	public String toString() {
+		return nodeString(head,0);
+	}
+
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+
+		LongIntervalTree<?> that = (LongIntervalTree<?>) o;
+
+		if (inSync != that.inSync || size != that.size || count != that.count) {
+			return false;
+		}
+		for (int i = 0; i < count; i++) {
+			if (starts[i] != that.starts[i] || ends[i] != that.ends[i] || (data.get(i) != null ? !data.get(i).equals(that.data.get(i)) : that.data.get(i) != null)) {
+				return false;
+			}
+		}
+		return head != null ? head.equals(that.head) : that.head == null;
+	}
+
+
+	@Override
+	public int hashCode() {
+		int result = head != null ? head.hashCode() : 0;
+		for (int i = 0; i < count; i++) {
+			result = 31 * result + Long.hashCode(starts[i]);
+			result = 31 * result + Long.hashCode(ends[i]);
+			result = 31 * result + (data.get(i) != null ? data.get(i).hashCode() : 0);
+		}
+		result = 31 * result + (inSync ? 1 : 0);
+		result = 31 * result + size;
+		return result;
+	}
+
+
+	private String nodeString(LongIntervalNode node, int level) {
+		if(node == null)
+			return "";
+
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < level; i++)
+			sb.append("\t");
+		sb.append(node.getCenter()).append(": ");
+		for(int index : node.getIntervals())
+			sb.append("(").append(starts[index]).append(",").append(ends[index]).append(",").append(data.get(index)).append(") ");
+		sb.append("\n");
+		sb.append(nodeString(node.getLeft(), level + 1));
+		sb.append(nodeString(node.getRight(), level + 1));
+		return sb.toString();
+	}
+}
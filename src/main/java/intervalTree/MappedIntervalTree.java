@@ -0,0 +1,111 @@
+package intervalTree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A MappedIntervalTree queries a tree snapshot written by {@link FrozenIntervalTree#write}
+ * straight from a read-only memory map of the file.
+ *
+ * Opening a snapshot only validates its header, so startup does not depend on the size of
+ * the tree, and every JVM on a host mapping the same file shares one copy in the page cache.
+ * Queries walk the mapped node arrays without creating {@link Interval} or {@link IntervalNode}
+ * objects; only the payloads returned are decoded.
+ *
+ * The file holds a {@link TreeLayout}, followed by the payloads of the intervals in slot order:
+ * <pre>
+ * int  payloadOffsets[intervals + 1]
+ * byte payloads[]
+ * </pre>
+ * Only integral and floating point keys can be written, and queries must use the same key
+ * type the snapshot was written with. A snapshot is limited to 2 GiB.
+ *
+ * @param <Type> the type of objects to associate
+ */
+public class MappedIntervalTree<N extends Number & Comparable<N>, Type> {
+
+	private final ByteBuffer buffer;
+	private final TreeLayout layout;
+	private final Function<? super ByteBuffer, ? extends Type> decoder;
+	private final int payloadOffsets;
+	private final int payloads;
+
+	/**
+	 * Map a tree snapshot file for querying
+	 * @param file	  a file written by {@link FrozenIntervalTree#write}
+	 * @param decoder turns the bytes of one payload, between the buffer's position and limit, back into its data
+	 * @throws IOException if the file cannot be read or is not a snapshot of a supported version
+	 */
+	public MappedIntervalTree(Path file, Function<? super ByteBuffer, ? extends Type> decoder) throws IOException {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if(channel.size() > Integer.MAX_VALUE)
+				throw new IOException("not an interval tree snapshot: " + file);
+			// the mapping stays valid after the channel is closed
+			this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		this.decoder = decoder;
+
+		try {
+			this.layout = new TreeLayout(buffer);
+		} catch (IllegalArgumentException e) {
+			throw new IOException(e.getMessage() + ": " + file, e);
+		}
+		payloadOffsets = layout.end();
+		payloads = payloadOffsets + 4 * (layout.size() + 1);
+		if(payloads > buffer.capacity())
+			throw new IOException("corrupt interval tree snapshot: " + file);
+	}
+
+	/**
+	 * Perform a stabbing query, returning the associated data
+	 * @param queryValue the number to stab
+	 * @return	   the data associated with all intervals that contain queryValue
+	 */
+	public List<Type> get(N queryValue) {
+		List<Type> result = new ArrayList<>();
+		layout.stab(layout.encode(queryValue), slot -> result.add(dataAt(slot)));
+		return result;
+	}
+
+	/**
+	 * Perform an interval query, returning the associated data
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	the data associated with all intervals that intersect target
+	 */
+	public List<Type> get(N start, N end) {
+		if ( start.compareTo(end) > 0) {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+		List<Type> result = new ArrayList<>();
+		layout.query(layout.encode(start), layout.encode(end), slot -> result.add(dataAt(slot)));
+		return result;
+	}
+
+	/**
+	 * @return the number of intervals in the snapshot
+	 */
+	public int size() {
+		return layout.size();
+	}
+
+	/**
+	 * @return the number of nodes in the snapshot
+	 */
+	public int nodeCount() {
+		return layout.nodeCount();
+	}
+
+	private Type dataAt(int slot) {
+		ByteBuffer payload = buffer.duplicate();
+		payload.limit(payloads + buffer.getInt(payloadOffsets + 4 * (slot + 1)));
+		payload.position(payloads + buffer.getInt(payloadOffsets + 4 * slot));
+		return decoder.apply(payload.slice());
+	}
+}
@@ -0,0 +1,131 @@
+package intervalTree;
+
+import java.util.Arrays;
+
+/**
+ * The MetricsSnapshot class is a point-in-time copy of the counters of a {@link TreeMetrics}
+ */
+public class MetricsSnapshot {
+
+	private final long queries;
+	private final long nodeVisits;
+	private final long intervalsScanned;
+	private final long intervalsReturned;
+	private final long[] scannedHistogram;
+	private final long rebuilds;
+	private final long rebuildNanos;
+	private final long lastRebuildNanos;
+	private final int nodeCount;
+	private final long[] depthHistogram;
+	private final int maxIntervalsPerNode;
+
+	MetricsSnapshot(long queries, long nodeVisits, long intervalsScanned, long intervalsReturned, long[] scannedHistogram, long rebuilds,
+			long rebuildNanos, long lastRebuildNanos, int nodeCount, long[] depthHistogram, int maxIntervalsPerNode) {
+		this.queries = queries;
+		this.nodeVisits = nodeVisits;
+		this.intervalsScanned = intervalsScanned;
+		this.intervalsReturned = intervalsReturned;
+		this.scannedHistogram = scannedHistogram;
+		this.rebuilds = rebuilds;
+		this.rebuildNanos = rebuildNanos;
+		this.lastRebuildNanos = lastRebuildNanos;
+		this.nodeCount = nodeCount;
+		this.depthHistogram = depthHistogram;
+		this.maxIntervalsPerNode = maxIntervalsPerNode;
+	}
+
+	/**
+	 * @return the number of stabbing and range queries recorded
+	 */
+	public long getQueries() {
+		return queries;
+	}
+
+	/**
+	 * @return the number of nodes those queries visited
+	 */
+	public long getNodeVisits() {
+		return nodeVisits;
+	}
+
+	/**
+	 * @return the number of stored intervals those queries compared against the query
+	 */
+	public long getIntervalsScanned() {
+		return intervalsScanned;
+	}
+
+	/**
+	 * @return the number of intervals those queries returned
+	 */
+	public long getIntervalsReturned() {
+		return intervalsReturned;
+	}
+
+	/**
+	 * @return the number of queries by intervals scanned: entry 0 counts queries that scanned
+	 *		   none, entry i counts those that scanned from 2^(i-1) up to 2^i - 1
+	 */
+	public long[] getScannedHistogram() {
+		return scannedHistogram.clone();
+	}
+
+	/**
+	 * @return the number of rebuilds recorded
+	 */
+	public long getRebuilds() {
+		return rebuilds;
+	}
+
+	/**
+	 * @return the total time spent in those rebuilds, in nanoseconds
+	 */
+	public long getRebuildNanos() {
+		return rebuildNanos;
+	}
+
+	/**
+	 * @return how long the last rebuild took, in nanoseconds
+	 */
+	public long getLastRebuildNanos() {
+		return lastRebuildNanos;
+	}
+
+	/**
+	 * @return the number of nodes in the last tree built
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * @return the number of nodes at each depth of the last tree built, starting with the root;
+	 *		   its length is the height of the tree
+	 */
+	public long[] getDepthHistogram() {
+		return depthHistogram.clone();
+	}
+
+	/**
+	 * @return the height of the last tree built
+	 */
+	public int getHeight() {
+		return depthHistogram.length;
+	}
+
+	/**
+	 * @return the largest number of intervals stored at any one node of the last tree built
+	 */
+	public int getMaxIntervalsPerNode() {
+		return maxIntervalsPerNode;
+	}
+
+	@Override
+	public String toString() {
+		return "MetricsSnapshot{queries=" + queries + ", nodeVisits=" + nodeVisits + ", intervalsScanned=" + intervalsScanned
+				+ ", intervalsReturned=" + intervalsReturned + ", scannedHistogram=" + Arrays.toString(scannedHistogram)
+				+ ", rebuilds=" + rebuilds + ", rebuildNanos=" + rebuildNanos + ", lastRebuildNanos=" + lastRebuildNanos
+				+ ", nodeCount=" + nodeCount + ", depthHistogram=" + Arrays.toString(depthHistogram)
+				+ ", maxIntervalsPerNode=" + maxIntervalsPerNode + "}";
+	}
+}
@@ -0,0 +1,241 @@
+package intervalTree;
+
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * An OffHeapIntervalTree keeps the nodes and endpoints of a built {@link IntervalTree} in
+ * direct memory, outside the Java heap, so that very large tables do not grow the old
+ * generation or slow down full collections.
+ *
+ * The tree is stored as a {@link TreeLayout} in a buffer from {@link ByteBuffer#allocateDirect},
+ * followed by one int per interval: the index of its data in a dictionary of the distinct
+ * payloads, which is the only part kept on the heap. Queries return the same data, in the same
+ * order, as the tree it was built from.
+ *
+ * The direct memory is released by {@link #close()} rather than left to the garbage collector.
+ * Queries hold a read lock while they use it, so closing waits for the queries already running
+ * and later ones fail, instead of reading freed memory. Only integral and floating point keys are supported, and a tree is limited to 2 GiB of
+ * direct memory, about a hundred million intervals.
+ *
+ * @param <Type> the type of objects to associate
+ */
+public class OffHeapIntervalTree<N extends Number & Comparable<N>, Type> implements Closeable {
+
+	private final Object[] dictionary;
+	private final long bytes;
+	private volatile ByteBuffer buffer;
+	private volatile TreeLayout layout;
+	private final int dataIds;
+	private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+	private volatile boolean released;
+
+	/**
+	 * Instantiate an off-heap tree from a list of intervals
+	 * The tree is built on the heap first, then copied out; only the copy is kept
+	 * @param intervalList the list of intervals to use
+	 * @param supplier a lambda initializing a type N number to zero
+	 */
+	public OffHeapIntervalTree(List<Interval<N, Type>> intervalList, Supplier<N> supplier) {
+		this(new FrozenIntervalTree<>(intervalList.isEmpty() ? new IntervalNode<>(supplier) : new IntervalNode<>(intervalList, supplier), intervalList.size()));
+	}
+
+	/**
+	 * Instantiate an off-heap copy of an interval tree
+	 * Will rebuild the tree if out of sync; later changes to the tree are not reflected in the copy
+	 * @param tree the tree to copy
+	 */
+	public OffHeapIntervalTree(IntervalTree<N, Type> tree) {
+		this(tree.freeze());
+	}
+
+	private OffHeapIntervalTree(FrozenIntervalTree<N, Type> frozen) {
+		Map<Object, Integer> ids = new HashMap<>();
+		List<Object> distinct = new ArrayList<>();
+		int[] slotIds = new int[frozen.size()];
+		for(int slot = 0; slot < slotIds.length; slot++) {
+			Type data = frozen.getData(slot);
+			Integer id = ids.get(data);
+			if(id == null) {
+				id = distinct.size();
+				ids.put(data, id);
+				distinct.add(data);
+			}
+			slotIds[slot] = id;
+		}
+		dictionary = distinct.toArray();
+
+		long trailerBytes = 4L * slotIds.length;
+		bytes = TreeLayout.bytes(frozen.nodeCount(), frozen.size()) + trailerBytes;
+		if(bytes > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("tree of " + bytes + " bytes is too large for one direct buffer");
+
+		ByteBuffer buffer = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+		frozen.writeLayout(buffer, trailerBytes);
+		for(int id : slotIds)
+			buffer.putInt(id);
+		this.layout = new TreeLayout(buffer);
+		this.dataIds = layout.end();
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Perform a stabbing query, returning the associated data
+	 * @param queryValue the number to stab
+	 * @return	   the data associated with all intervals that contain queryValue
+	 * @throws IllegalStateException if the tree has been closed
+	 */
+	public List<Type> get(N queryValue) {
+		Lock lock = closeLock.readLock();
+		lock.lock();
+		try {
+			TreeLayout layout = open();
+			ByteBuffer buffer = this.buffer;
+			List<Type> result = new ArrayList<>();
+			layout.stab(layout.encode(queryValue), slot -> result.add(dataAt(buffer, slot)));
+			return result;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Perform an interval query, returning the associated data
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	the data associated with all intervals that intersect target
+	 * @throws IllegalStateException if the tree has been closed
+	 */
+	public List<Type> get(N start, N end) {
+		if ( start.compareTo(end) > 0) {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+		Lock lock = closeLock.readLock();
+		lock.lock();
+		try {
+			TreeLayout layout = open();
+			ByteBuffer buffer = this.buffer;
+			List<Type> result = new ArrayList<>();
+			layout.query(layout.encode(start), layout.encode(end), slot -> result.add(dataAt(buffer, slot)));
+			return result;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the number of intervals in the tree
+	 */
+	public int size() {
+		Lock lock = closeLock.readLock();
+		lock.lock();
+		try {
+			return open().size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the number of distinct payloads, the entries kept on the heap
+	 */
+	public int dictionarySize() {
+		return dictionary.length;
+	}
+
+	/**
+	 * @return the number of bytes of direct memory the tree holds, until closed
+	 */
+	public long offHeapBytes() {
+		return bytes;
+	}
+
+	/**
+	 * @return true if {@link #close()} has been called
+	 */
+	public boolean isClosed() {
+		return layout == null;
+	}
+
+	/**
+	 * @return true if closing released the direct memory at once, false if the tree is open or
+	 * 		   the memory could not be freed and was left to the garbage collector
+	 */
+	public boolean isReleased() {
+		return released;
+	}
+
+	/**
+	 * Release the direct memory holding the tree
+	 * Waits for running queries to finish first; any query after closing fails.
+	 * Closing more than once has no further effect
+	 * @see #isReleased()
+	 */
+	@Override
+	public void close() {
+		Lock lock = closeLock.writeLock();
+		lock.lock();
+		try {
+			ByteBuffer buffer = this.buffer;
+			if(buffer == null)
+				return;
+			layout = null;
+			this.buffer = null;
+			released = free(buffer);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private TreeLayout open() {
+		TreeLayout layout = this.layout;
+		if(layout == null)
+			throw new IllegalStateException("tree is closed");
+		return layout;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Type dataAt(ByteBuffer buffer, int slot) {
+		return (Type) dictionary[buffer.getInt(dataIds + 4 * slot)];
+	}
+
+	/**
+	 * Release a direct buffer now, rather than when it is garbage collected
+	 * There is no public API for this before the foreign memory API, so it goes through
+	 * sun.misc.Unsafe on Java 9 and later, and the buffer's cleaner on Java 8. If neither
+	 * is available, the memory is left to the garbage collector
+	 * @return true if the memory was released, false if it is left to the garbage collector
+	 */
+	private static boolean free(ByteBuffer buffer) {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Method invokeCleaner;
+			try {
+				invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			} catch (NoSuchMethodException e) {
+				Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+				cleanerMethod.setAccessible(true);
+				Object cleaner = cleanerMethod.invoke(buffer);
+				cleaner.getClass().getMethod("clean").invoke(cleaner);
+				return true;
+			}
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			invokeCleaner.invoke(theUnsafe.get(null), buffer);
+			return true;
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package intervalTree;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The Payloads class holds the data of every interval of a primitive tree, by interval index.
+ *
+ * Plainly, it is an array of references. Dictionary encoded, every distinct payload is kept
+ * once, and each interval only stores its ordinal in that dictionary, in a byte, a short or
+ * an int per interval depending on how many distinct payloads there are. The ordinals start
+ * out as bytes and are widened as the dictionary grows. Payloads are told apart by equals.
+ */
+final class Payloads {
+
+	private static final int BYTE_ORDINALS = 1 << 8;
+	private static final int SHORT_ORDINALS = 1 << 16;
+
+	private Object[] plain;
+
+	private Map<Object, Integer> ids;
+	private Object[] dictionary;
+	private int dictionarySize;
+	private byte[] byteOrdinals;
+	private short[] shortOrdinals;
+	private int[] intOrdinals;
+
+	/**
+	 * @param capacity the number of intervals to make room for
+	 * @param encoded  true to encode payloads against a dictionary
+	 */
+	Payloads(int capacity, boolean encoded) {
+		if(encoded) {
+			ids = new HashMap<>();
+			dictionary = new Object[16];
+			byteOrdinals = new byte[capacity];
+		} else {
+			plain = new Object[capacity];
+		}
+	}
+
+	/**
+	 * @return a copy of the first count payloads, stored plainly or dictionary encoded
+	 */
+	Payloads reencode(int count, boolean encoded) {
+		Payloads copy = new Payloads(Math.max(count, capacity()), encoded);
+		for(int i = 0; i < count; i++)
+			copy.set(i, get(i));
+		return copy;
+	}
+
+	boolean isEncoded() {
+		return plain == null;
+	}
+
+	/**
+	 * @return the number of distinct payloads, or -1 if payloads are not dictionary encoded
+	 */
+	int dictionarySize() {
+		return plain == null ? dictionarySize : -1;
+	}
+
+	Object get(int index) {
+		if(plain != null)
+			return plain[index];
+		if(byteOrdinals != null)
+			return dictionary[byteOrdinals[index] & 0xff];
+		if(shortOrdinals != null)
+			return dictionary[shortOrdinals[index] & 0xffff];
+		return dictionary[intOrdinals[index]];
+	}
+
+	void set(int index, Object payload) {
+		if(plain != null) {
+			plain[index] = payload;
+			return;
+		}
+		int id = idOf(payload);
+		if(byteOrdinals != null)
+			byteOrdinals[index] = (byte) id;
+		else if(shortOrdinals != null)
+			shortOrdinals[index] = (short) id;
+		else
+			intOrdinals[index] = id;
+	}
+
+	/**
+	 * Copy payloads in from an array
+	 */
+	void set(int index, Object[] payloads, int count) {
+		if(plain != null) {
+			System.arraycopy(payloads, 0, plain, index, count);
+			return;
+		}
+		for(int i = 0; i < count; i++)
+			set(index + i, payloads[i]);
+	}
+
+	int capacity() {
+		if(plain != null)
+			return plain.length;
+		if(byteOrdinals != null)
+			return byteOrdinals.length;
+		if(shortOrdinals != null)
+			return shortOrdinals.length;
+		return intOrdinals.length;
+	}
+
+	/**
+	 * Change the number of intervals there is room for, keeping those that still fit
+	 */
+	void resize(int capacity) {
+		if(plain != null)
+			plain = Arrays.copyOf(plain, capacity);
+		else if(byteOrdinals != null)
+			byteOrdinals = Arrays.copyOf(byteOrdinals, capacity);
+		else if(shortOrdinals != null)
+			shortOrdinals = Arrays.copyOf(shortOrdinals, capacity);
+		else
+			intOrdinals = Arrays.copyOf(intOrdinals, capacity);
+	}
+
+	/**
+	 * @return the ordinal of a payload, adding it to the dictionary and widening the ordinals if needed
+	 */
+	private int idOf(Object payload) {
+		Integer id = ids.get(payload);
+		if(id != null)
+			return id;
+		int next = dictionarySize++;
+		if(next == dictionary.length)
+			dictionary = Arrays.copyOf(dictionary, next * 2);
+		dictionary[next] = payload;
+		ids.put(payload, next);
+		if(next == BYTE_ORDINALS && byteOrdinals != null) {
+			shortOrdinals = new short[byteOrdinals.length];
+			for(int i = 0; i < byteOrdinals.length; i++)
+				shortOrdinals[i] = (short) (byteOrdinals[i] & 0xff);
+			byteOrdinals = null;
+		} else if(next == SHORT_ORDINALS && shortOrdinals != null) {
+			intOrdinals = new int[shortOrdinals.length];
+			for(int i = 0; i < shortOrdinals.length; i++)
+				intOrdinals[i] = shortOrdinals[i] & 0xffff;
+			shortOrdinals = null;
+		}
+		return next;
+	}
+}
@@ -0,0 +1,114 @@
+package intervalTree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * The QuerySpliterator class walks an interval intersection query over a tree of
+ * {@link IntervalNode}s lazily, one interval at a time, in the same order as
+ * {@link IntervalNode#query(Number, Number, Object, java.util.function.BiConsumer)}.
+ *
+ * The matches at a node are always a prefix of one of its two orders, so a node is opened
+ * with a binary search and then read off without further comparisons. Subtrees still to be
+ * visited are kept on a stack, and splitting hands the earlier ones to a new spliterator, so
+ * parallel streams divide the work along subtrees. A stabbing query is the intersection
+ * query of a single point.
+ */
+final class QuerySpliterator<N extends Number & Comparable<N>, Type> implements Spliterator<Interval<N, Type>> {
+
+	private final N start;
+	private final N end;
+	/** subtrees left to visit, the next one first */
+	private final Deque<IntervalNode<N, Type>> pending;
+	private List<Interval<N, Type>> order;
+	private int index;
+	private int matches;
+	private long estimate;
+
+	/**
+	 * @param head	   the root of the tree to query
+	 * @param start	   the start of the interval to intersect
+	 * @param end	   the end of the interval to intersect
+	 * @param estimate the number of intervals in the tree, an upper bound on the matches
+	 */
+	QuerySpliterator(IntervalNode<N, Type> head, N start, N end, long estimate) {
+		this(start, end, estimate);
+		pending.push(head);
+	}
+
+	private QuerySpliterator(N start, N end, long estimate) {
+		this.start = start;
+		this.end = end;
+		this.pending = new ArrayDeque<>();
+		this.estimate = estimate;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super Interval<N, Type>> action) {
+		while(index == matches) {
+			if(pending.isEmpty())
+				return false;
+			open(pending.pop());
+		}
+		action.accept(order.get(index++));
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super Interval<N, Type>> action) {
+		while(true) {
+			while(index < matches)
+				action.accept(order.get(index++));
+			if(pending.isEmpty())
+				return;
+			open(pending.pop());
+		}
+	}
+
+	@Override
+	public Spliterator<Interval<N, Type>> trySplit() {
+		// a lone subtree is opened first, so that its own matches and left child can go to the prefix,
+		// and down the tree while a node matches nothing and leaves only one child to visit
+		while(index == matches && pending.size() == 1)
+			open(pending.pop());
+		if(pending.isEmpty() || (index == matches && pending.size() == 1))
+			return null;
+
+		QuerySpliterator<N, Type> prefix = new QuerySpliterator<>(start, end, estimate >>>= 1);
+		prefix.order = order;
+		prefix.index = index;
+		prefix.matches = matches;
+		index = matches = 0;
+		order = null;
+		while(pending.size() > 1)
+			prefix.pending.addLast(pending.pop());
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return estimate;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL;
+	}
+
+	/**
+	 * Make the matches stored at a node the current ones, and schedule the children to visit after them
+	 */
+	private void open(IntervalNode<N, Type> node) {
+		N center = node.getCenter();
+		order = start.compareTo(center) > 0 ? node.getIntervalsByEnd() : node.getIntervals();
+		index = 0;
+		matches = node.countIntersecting(start, end);
+		if(end.compareTo(center) > 0 && node.getRight() != null)
+			pending.push(node.getRight());
+		if(start.compareTo(center) < 0 && node.getLeft() != null)
+			pending.push(node.getLeft());
+	}
+}
@@ -0,0 +1,347 @@
+package intervalTree;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
+
+/**
+ * The RangeLoader class streams a text file of ranges into a {@link LongIntervalTree},
+ * without collecting a list of {@link Interval} objects first.
+ *
+ * Every line holds the start and end of one range, as decimal integers optionally wrapped
+ * in double quotes, followed by an optional data column:
+ * <pre>
+ * 16777216,16777471,AU
+ * "16777472","16778239","CN"
+ * </pre>
+ * Everything after the separator that follows the end, quotes included, is passed to the
+ * decoder as the data of the range. Blank lines and lines starting with '#' are ignored.
+ *
+ * A background thread reads and parses the input in chunks of primitive arrays, while the
+ * calling thread copies the chunks it has already been handed into the tree, so parsing
+ * overlaps with filling the tree and at most a few chunks are held besides it. Endpoints
+ * are parsed straight from the bytes read, with no String or boxed Number in between.
+ * Reading a file, the tree is sized from the length of the file and of the lines parsed so
+ * far, so that its arrays are seldom copied to grow and end up close to the size needed.
+ * Ranges already sorted by start, and then by end, build faster since their order is kept.
+ *
+ * @param <Type> the type of objects to associate
+ */
+public class RangeLoader<Type> {
+
+	private static final int BLOCK_BYTES = 1 << 16;
+	private static final int QUEUED_CHUNKS = 4;
+	/** room reserved beyond the estimated number of ranges of a file, as a right shift of it */
+	private static final int ESTIMATE_MARGIN_SHIFT = 5;
+
+	private final Function<? super String, ? extends Type> decoder;
+	private byte separator = ',';
+	private int skipLines = 0;
+	private int chunkSize = 8192;
+	private boolean dictionaryEncoded = false;
+
+	/**
+	 * Instantiate a loader
+	 * @param decoder turns the data column of a line into the data to associate with its range,
+	 * 				  and is given the empty string for lines without one; runs on the parsing thread
+	 */
+	public RangeLoader(Function<? super String, ? extends Type> decoder) {
+		this.decoder = decoder;
+	}
+
+	/**
+	 * @param separator the character between columns, ',' by default
+	 */
+	public void setSeparator(char separator) {
+		if(separator > 0x7f || separator == '"' || separator == '-' || separator == '\n' || separator == '\r' || (separator >= '0' && separator <= '9'))
+			throw new IllegalArgumentException("separator must be an ASCII character that cannot appear in a number");
+		this.separator = (byte) separator;
+	}
+
+	/**
+	 * @param skipLines the number of header lines to skip at the start of the input
+	 */
+	public void setSkipLines(int skipLines) {
+		if(skipLines < 0)
+			throw new IllegalArgumentException("cannot skip a negative number of lines");
+		this.skipLines = skipLines;
+	}
+
+	/**
+	 * @param chunkSize the number of ranges the parsing thread hands over at a time
+	 */
+	public void setChunkSize(int chunkSize) {
+		if(chunkSize <= 0)
+			throw new IllegalArgumentException("chunk size must be positive");
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @param dictionaryEncoded true to load into a tree storing its payloads dictionary encoded,
+	 * 							which saves memory when few distinct payloads are shared by many ranges
+	 * @see LongIntervalTree#setDictionaryEncoded
+	 */
+	public void setDictionaryEncoded(boolean dictionaryEncoded) {
+		this.dictionaryEncoded = dictionaryEncoded;
+	}
+
+	/**
+	 * Load and build a tree from a file of ranges
+	 * @param file the file to read
+	 * @return a built tree of every range in the file
+	 * @throws IOException if the file cannot be read or a line is not a valid range
+	 */
+	public LongIntervalTree<Type> load(Path file) throws IOException {
+		try(InputStream in = Files.newInputStream(file)) {
+			return load(in, Files.size(file));
+		}
+	}
+
+	/**
+	 * Load and build a tree from a stream of ranges, reading it to the end
+	 * The stream is not closed
+	 * @param in the stream to read
+	 * @return a built tree of every range in the stream
+	 * @throws IOException if the stream cannot be read or a line is not a valid range
+	 */
+	public LongIntervalTree<Type> load(InputStream in) throws IOException {
+		return load(in, -1);
+	}
+
+	/**
+	 * @param length the number of bytes in the stream, or -1 if unknown
+	 */
+	private LongIntervalTree<Type> load(InputStream in, long length) throws IOException {
+		BlockingQueue<Chunk> parsed = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+		BlockingQueue<Chunk> free = new ArrayBlockingQueue<>(QUEUED_CHUNKS + 1);
+		for(int i = 0; i <= QUEUED_CHUNKS; i++)
+			free.add(new Chunk(chunkSize));
+		Thread parser = new Thread(new Parser(in, parsed, free), "interval-tree-loader");
+		parser.setDaemon(true);
+		parser.start();
+
+		LongIntervalTree<Type> tree = new LongIntervalTree<>();
+		tree.setDictionaryEncoded(dictionaryEncoded);
+		long bytesParsed = 0;
+		try {
+			while(true) {
+				Chunk chunk = parsed.take();
+				if(chunk.failure != null)
+					throw rethrow(chunk.failure);
+				bytesParsed += chunk.bytes;
+				int ranges = tree.listSize() + chunk.count;
+				if(length > 0 && ranges > tree.capacity())
+					tree.reserve(estimateRanges(ranges, bytesParsed, length));
+				tree.append(chunk.starts, chunk.ends, chunk.data, chunk.count);
+				if(chunk.last)
+					break;
+				chunk.count = 0;
+				chunk.bytes = 0;
+				free.put(chunk);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while loading ranges");
+		} finally {
+			// stops the parser if loading failed, and is harmless once it has finished
+			parser.interrupt();
+		}
+		tree.trimToSize();
+		tree.build();
+		return tree;
+	}
+
+	/**
+	 * Estimate the number of ranges in a stream from the density of those parsed so far, with a small margin
+	 * @param ranges the number of ranges parsed so far
+	 * @param parsed the number of bytes they were parsed from
+	 * @param length the number of bytes in the stream
+	 */
+	private static int estimateRanges(int ranges, long parsed, long length) {
+		double estimate = (double) ranges * Math.max(length, parsed) / Math.max(parsed, 1);
+		estimate += estimate / (1 << ESTIMATE_MARGIN_SHIFT);
+		return (int) Math.max(ranges, Math.min(estimate, Integer.MAX_VALUE - 8));
+	}
+
+	private static IOException rethrow(Throwable failure) {
+		if(failure instanceof IOException)
+			return (IOException) failure;
+		if(failure instanceof RuntimeException)
+			throw (RuntimeException) failure;
+		throw (Error) failure;
+	}
+
+	/**
+	 * A batch of parsed ranges, handed from the parsing thread to the loading one and back
+	 */
+	private static final class Chunk {
+		private final long[] starts;
+		private final long[] ends;
+		private final Object[] data;
+		private int count;
+		/** the number of bytes of input the ranges were parsed from, with the lines skipped among them */
+		private long bytes;
+		private boolean last;
+		private Throwable failure;
+
+		private Chunk(int size) {
+			starts = new long[size];
+			ends = new long[size];
+			data = new Object[size];
+		}
+	}
+
+	/**
+	 * Reads the input line by line, filling chunks until the input ends or loading is abandoned
+	 */
+	private final class Parser implements Runnable {
+		private final InputStream in;
+		private final BlockingQueue<Chunk> parsed;
+		private final BlockingQueue<Chunk> free;
+		private byte[] buffer = new byte[BLOCK_BYTES];
+		private long line;
+		private int cursor;
+
+		private Parser(InputStream in, BlockingQueue<Chunk> parsed, BlockingQueue<Chunk> free) {
+			this.in = in;
+			this.parsed = parsed;
+			this.free = free;
+		}
+
+		@Override
+		public void run() {
+			Chunk chunk;
+			try {
+				chunk = free.take();
+			} catch (InterruptedException e) {
+				return;
+			}
+			try {
+				int from = 0;
+				int limit = 0;
+				boolean eof = false;
+				while(true) {
+					int newline = from;
+					while(newline < limit && buffer[newline] != '\n')
+						newline++;
+					if(newline == limit && !eof) {
+						// keep the partial line, then read more after it
+						System.arraycopy(buffer, from, buffer, 0, limit - from);
+						limit -= from;
+						from = 0;
+						if(limit == buffer.length)
+							buffer = Arrays.copyOf(buffer, buffer.length * 2);
+						int read = in.read(buffer, limit, buffer.length - limit);
+						if(read < 0)
+							eof = true;
+						else
+							limit += read;
+						continue;
+					}
+					chunk.bytes += Math.min(newline + 1, limit) - from;
+					if(parseLine(from, newline, chunk) && chunk.count == chunk.starts.length) {
+						parsed.put(chunk);
+						chunk = free.take();
+					}
+					if(newline == limit)
+						break;
+					from = newline + 1;
+				}
+				chunk.last = true;
+				parsed.put(chunk);
+			} catch (InterruptedException e) {
+				// loading was abandoned
+			} catch (IOException | RuntimeException | Error e) {
+				chunk.failure = e;
+				try {
+					parsed.put(chunk);
+				} catch (InterruptedException ignored) {
+					// loading was abandoned
+				}
+			}
+		}
+
+		/**
+		 * Parse one line into the chunk
+		 * @return true if the line held a range
+		 */
+		private boolean parseLine(int from, int to, Chunk chunk) throws IOException {
+			line++;
+			if(line <= skipLines)
+				return false;
+			if(to > from && buffer[to - 1] == '\r')
+				to--;
+			cursor = skipSpaces(from, to);
+			if(cursor == to || buffer[cursor] == '#')
+				return false;
+
+			long start = number(to);
+			expectSeparator(to);
+			long end = number(to);
+			String text = "";
+			if(cursor < to) {
+				expectSeparator(to);
+				text = new String(buffer, cursor, to - cursor, StandardCharsets.UTF_8);
+			}
+			if(end < start)
+				throw new IOException("beginning of range must be less than end at line " + line);
+
+			chunk.starts[chunk.count] = start;
+			chunk.ends[chunk.count] = end;
+			chunk.data[chunk.count] = decoder.apply(text);
+			chunk.count++;
+			return true;
+		}
+
+		private long number(int to) throws IOException {
+			int i = skipSpaces(cursor, to);
+			boolean quoted = i < to && buffer[i] == '"';
+			if(quoted)
+				i++;
+			boolean negative = i < to && buffer[i] == '-';
+			if(negative)
+				i++;
+			int digits = i;
+			// accumulated negatively, so that Long.MIN_VALUE can be read
+			long value = 0;
+			while(i < to && buffer[i] >= '0' && buffer[i] <= '9') {
+				int digit = buffer[i++] - '0';
+				if(value < (Long.MIN_VALUE + digit) / 10)
+					throw new IOException("number out of range at line " + line);
+				value = value * 10 - digit;
+			}
+			if(i == digits)
+				throw new IOException("expected a number at line " + line);
+			if(quoted) {
+				if(i == to || buffer[i] != '"')
+					throw new IOException("unterminated quote at line " + line);
+				i++;
+			}
+			cursor = skipSpaces(i, to);
+			if(negative)
+				return value;
+			if(value == Long.MIN_VALUE)
+				throw new IOException("number out of range at line " + line);
+			return -value;
+		}
+
+		private void expectSeparator(int to) throws IOException {
+			if(cursor == to || buffer[cursor] != separator)
+				throw new IOException("expected '" + (char) separator + "' at line " + line);
+			cursor++;
+		}
+
+		private int skipSpaces(int from, int to) {
+			while(from < to && buffer[from] != separator && (buffer[from] == ' ' || buffer[from] == '\t'))
+				from++;
+			return from;
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package intervalTree;
+
+/**
+ * The RebuildStatus class is a point-in-time view of how far the published snapshot
+ * of a {@link ConcurrentIntervalTree} lags behind its staged changes
+ */
+public class RebuildStatus {
+
+	private final long pendingChanges;
+	private final long stalenessNanos;
+	private final boolean rebuilding;
+	private final long version;
+	private final long lastRebuildNanos;
+	private final Throwable lastFailure;
+
+	RebuildStatus(long pendingChanges, long stalenessNanos, boolean rebuilding, long version, long lastRebuildNanos, Throwable lastFailure) {
+		this.pendingChanges = pendingChanges;
+		this.stalenessNanos = stalenessNanos;
+		this.rebuilding = rebuilding;
+		this.version = version;
+		this.lastRebuildNanos = lastRebuildNanos;
+		this.lastFailure = lastFailure;
+	}
+
+	/**
+	 * @return true if the published snapshot reflects every staged change
+	 */
+	public boolean inSync() {
+		return pendingChanges == 0;
+	}
+
+	/**
+	 * @return the number of staged additions and removals not yet visible to queries
+	 */
+	public long getPendingChanges() {
+		return pendingChanges;
+	}
+
+	/**
+	 * @return how long the oldest change not yet visible to queries has been waiting, in nanoseconds
+	 */
+	public long getStalenessNanos() {
+		return stalenessNanos;
+	}
+
+	/**
+	 * @return true if a new snapshot is being built
+	 */
+	public boolean isRebuilding() {
+		return rebuilding;
+	}
+
+	/**
+	 * @return the version of the published snapshot
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return how long the published snapshot took to build, in nanoseconds
+	 */
+	public long getLastRebuildNanos() {
+		return lastRebuildNanos;
+	}
+
+	/**
+	 * A failed background rebuild is not retried on its own: its changes stay pending, and
+	 * are built again by the rebuild the next staged change schedules, or by publish
+	 * @return the exception thrown by the last rebuild, or null if it succeeded
+	 */
+	public Throwable getLastFailure() {
+		return lastFailure;
+	}
+
+	@Override
+	public String toString() {
+		return "RebuildStatus{pendingChanges=" + pendingChanges + ", stalenessNanos=" + stalenessNanos + ", rebuilding=" + rebuilding
+				+ ", version=" + version + ", lastRebuildNanos=" + lastRebuildNanos + ", lastFailure=" + lastFailure + "}";
+	}
+}
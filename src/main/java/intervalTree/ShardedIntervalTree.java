@@ -0,0 +1,258 @@
+package intervalTree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A ShardedIntervalTree splits the key space into contiguous ranges, each backed by its own
+ * {@link IntervalTree}, so that a change only rebuilds the shards it touches rather than
+ * every interval.
+ *
+ * Shard i holds the keys from boundary i - 1, inclusive, up to boundary i, exclusive; the
+ * first and last shards are unbounded below and above. An interval crossing boundaries is
+ * stored in every shard it overlaps, so a stabbing query only asks the shard of its key.
+ * A range query asks every shard it overlaps, and reports each interval once, from the
+ * first of those shards that holds it. Results hold the same intervals as an IntervalTree
+ * would return, but not necessarily in the same order.
+ *
+ * Queries rebuild the shards they ask if out of sync, one at a time. {@link #build()}
+ * rebuilds every out of sync shard at once, in parallel given a pool.
+ *
+ * @param <Type> the type of objects to associate
+ */
+public class ShardedIntervalTree<N extends Number & Comparable<N>, Type> {
+
+	private final List<N> boundaries;
+	private final List<IntervalTree<N, Type>> shards;
+	private ForkJoinPool buildPool;
+	private int count;
+
+	/**
+	 * Instantiate a new sharded tree with no intervals
+	 * @param boundaries the keys at which each shard after the first begins, ascending
+	 * @param supplier a lambda initializing a type N number to zero
+	 */
+	public ShardedIntervalTree(List<N> boundaries, Supplier<N> supplier) {
+		for (int i = 1; i < boundaries.size(); i++) {
+			if ( boundaries.get(i - 1).compareTo(boundaries.get(i)) >= 0) {
+				throw new IllegalArgumentException("shard boundaries must be ascending");
+			}
+		}
+		this.boundaries = new ArrayList<>(boundaries);
+		this.shards = new ArrayList<>();
+		for (int i = 0; i <= boundaries.size(); i++)
+			shards.add(new IntervalTree<>(supplier));
+	}
+
+	/**
+	 * Instantiate a sharded tree with a preset list of intervals
+	 * @param boundaries the keys at which each shard after the first begins, ascending
+	 * @param intervalList the list of intervals to use
+	 * @param supplier a lambda initializing a type N number to zero
+	 */
+	public ShardedIntervalTree(List<N> boundaries, List<Interval<N, Type>> intervalList, Supplier<N> supplier) {
+		this(boundaries, supplier);
+		for (Interval<N, Type> interval : intervalList)
+			addInterval(interval);
+		build();
+	}
+
+	/**
+	 * Rebuild out of sync shards in parallel on a fork/join pool from now on
+	 * @param buildPool the pool to rebuild on, or null to rebuild on the calling thread
+	 */
+	public void setBuildPool(ForkJoinPool buildPool) {
+		this.buildPool = buildPool;
+	}
+
+	/**
+	 * Perform a stabbing query, returning the associated data
+	 * Will rebuild the shard of queryValue if out of sync
+	 * @param queryValue the number to stab
+	 * @return	   the data associated with all intervals that contain queryValue
+	 */
+	public List<Type> get(N queryValue) {
+		return shards.get(shardOf(queryValue)).get(queryValue);
+	}
+
+	/**
+	 * Perform a stabbing query, returning the interval objects
+	 * Will rebuild the shard of value if out of sync
+	 * @param value the value to stab
+	 * @return	   all intervals that contain value
+	 */
+	public List<Interval<N, Type>> getIntervals(N value) {
+		return shards.get(shardOf(value)).getIntervals(value);
+	}
+
+	/**
+	 * Perform an interval query, returning the associated data
+	 * Will rebuild the shards overlapping target if out of sync
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	the data associated with all intervals that intersect target
+	 */
+	public List<Type> get(N start, N end) {
+		List<Type> result = new ArrayList<>();
+		query(start, end, interval -> result.add(interval.getData()));
+		return result;
+	}
+
+	/**
+	 * Perform an interval query, returning the interval objects
+	 * Will rebuild the shards overlapping target if out of sync
+	 * @param start the start of the interval to check
+	 * @param end	the end of the interval to check
+	 * @return	  	all intervals that intersect target
+	 */
+	public List<Interval<N, Type>> getIntervals(N start, N end) {
+		List<Interval<N, Type>> result = new ArrayList<>();
+		query(start, end, result::add);
+		return result;
+	}
+
+	/**
+	 * Perform an interval query, passing every interval object to a consumer once
+	 * Will rebuild the shards overlapping target if out of sync
+	 * @param start	   the start of the interval to check
+	 * @param end	   the end of the interval to check
+	 * @param consumer receives all intervals that intersect target
+	 */
+	public void query(N start, N end, Consumer<? super Interval<N, Type>> consumer) {
+		if ( start.compareTo(end) > 0) {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+		int first = shardOf(start);
+		int last = shardOf(end);
+		for (int shard = first; shard <= last; shard++) {
+			int current = shard;
+			shards.get(shard).query(start, end, interval -> {
+				// reported by the first queried shard holding it
+				N from = interval.getStart().compareTo(start) > 0 ? interval.getStart() : start;
+				if(current == first || shardOf(from) == current)
+					consumer.accept(interval);
+			});
+		}
+	}
+
+	/**
+	 * Add an interval object to the shards it overlaps
+	 * Will not rebuild those shards until they are next queried or build is called
+	 * @param interval the interval object to add
+	 */
+	public void addInterval(Interval<N, Type> interval) {
+		if ( interval.getEnd().compareTo(interval.getStart()) < 0) {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+		int last = shardOf(interval.getEnd());
+		for (int shard = shardOf(interval.getStart()); shard <= last; shard++)
+			shards.get(shard).addInterval(interval);
+		count++;
+	}
+
+	/**
+	 * Add an interval object to the shards it overlaps
+	 * Will not rebuild those shards until they are next queried or build is called
+	 * @param begin the beginning of the interval
+	 * @param end	the end of the interval
+	 * @param data	the data to associate
+	 */
+	public void addInterval(N begin, N end, Type data) {
+		addInterval(new Interval<>(begin, end, data));
+	}
+
+	/**
+	 * Remove one interval equal to the given interval object from the shards it overlaps
+	 * Will not rebuild those shards until they are next queried or build is called
+	 * @param interval the interval object to remove
+	 * @return true if the tree contained the interval
+	 */
+	public boolean removeInterval(Interval<N, Type> interval) {
+		if ( interval.getEnd().compareTo(interval.getStart()) < 0) {
+			return false;
+		}
+		int first = shardOf(interval.getStart());
+		if(!shards.get(first).removeInterval(interval))
+			return false;
+		int last = shardOf(interval.getEnd());
+		for (int shard = first + 1; shard <= last; shard++)
+			shards.get(shard).removeInterval(interval);
+		count--;
+		return true;
+	}
+
+	/**
+	 * Rebuild every shard that is out of sync, in parallel if a build pool is set
+	 */
+	public void build() {
+		List<IntervalTree<N, Type>> dirty = new ArrayList<>();
+		for (IntervalTree<N, Type> shard : shards) {
+			if(!shard.inSync())
+				dirty.add(shard);
+		}
+		ForkJoinPool pool = buildPool;
+		if(pool == null || dirty.size() < 2) {
+			for (IntervalTree<N, Type> shard : dirty)
+				shard.build();
+		} else {
+			List<ForkJoinTask<?>> builds = new ArrayList<>();
+			for (IntervalTree<N, Type> shard : dirty)
+				builds.add(ForkJoinTask.adapt(shard::build));
+			pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(builds)));
+		}
+	}
+
+	/**
+	 * Determine whether every shard is currently a reflection of the intervals added to it
+	 * @return true if no changes have been made since the last build
+	 */
+	public boolean inSync() {
+		return dirtyShards() == 0;
+	}
+
+	/**
+	 * @return the number of shards that will be rebuilt by their next query or call to build
+	 */
+	public int dirtyShards() {
+		int dirty = 0;
+		for (IntervalTree<N, Type> shard : shards) {
+			if(!shard.inSync())
+				dirty++;
+		}
+		return dirty;
+	}
+
+	/**
+	 * @return the number of shards
+	 */
+	public int shardCount() {
+		return shards.size();
+	}
+
+	/**
+	 * @return the number of intervals added, each counted once however many shards it overlaps
+	 */
+	public int listSize() {
+		return count;
+	}
+
+	/**
+	 * @return the index of the shard holding key
+	 */
+	private int shardOf(N key) {
+		int low = 0;
+		int high = boundaries.size();
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(boundaries.get(middle).compareTo(key) <= 0)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+}
@@ -0,0 +1,225 @@
+package intervalTree;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The StabCache class is a bounded cache of stabbing query results, for workloads where a
+ * small set of hot keys makes up most lookups. Attach one to a tree through
+ * {@link IntervalTree#setCache} or {@link ConcurrentIntervalTree#setCache}, and repeated
+ * calls to get(N) for the same key return the stored result instead of descending the tree.
+ *
+ * Every entry is stamped with the version of the tree it was computed from. Adding or
+ * removing intervals and rebuilding changes the version, so entries from before the change
+ * are treated as misses and replaced on their next lookup; stale entries nobody asks for
+ * again age out of the cache. Versions only tell apart the states of one tree, so a cache
+ * serves a single tree at a time, and is emptied when attached to another.
+ *
+ * Keys are spread over independently locked segments, each evicting its least recently
+ * used entry once full, so concurrent readers mostly take different locks. Hit and miss
+ * counts are kept to help size the cache.
+ *
+ * @param <Type> the type of objects associated with the intervals of the tree
+ */
+public class StabCache<N extends Number & Comparable<N>, Type> {
+
+	private final Segment<N, Type>[] segments;
+	private final int maximumSize;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	/** the tree this cache is attached to, or null */
+	private Object owner;
+
+	/**
+	 * Instantiate an empty cache
+	 * @param maximumSize the number of results to keep at most
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public StabCache(int maximumSize) {
+		if(maximumSize <= 0)
+			throw new IllegalArgumentException("cache size must be positive");
+		this.maximumSize = maximumSize;
+		// about four segments per processor, but never fewer than 64 entries in a segment
+		int count = Integer.highestOneBit(Math.max(1, Math.min(4 * Runtime.getRuntime().availableProcessors(), maximumSize / 64)));
+		segments = new Segment[count];
+		for(int i = 0; i < count; i++)
+			segments[i] = new Segment<>(maximumSize / count + (i < maximumSize % count ? 1 : 0), evictions);
+	}
+
+	/**
+	 * Attach this cache to a tree, emptying it if it was not attached already
+	 * @throws IllegalStateException if the cache is attached to another tree
+	 */
+	synchronized void attach(Object tree) {
+		if(owner == tree)
+			return;
+		if(owner != null)
+			throw new IllegalStateException("cache is already attached to another tree");
+		clear();
+		owner = tree;
+	}
+
+	/**
+	 * Detach this cache from a tree, if it is attached to it
+	 */
+	synchronized void detach(Object tree) {
+		if(owner == tree)
+			owner = null;
+	}
+
+	/**
+	 * Look up the result stored for a key
+	 * @param key	  the stabbed value
+	 * @param version the version of the tree being queried
+	 * @return the stored result, or null if there is none for this version of the tree
+	 */
+	List<Type> get(N key, long version) {
+		Segment<N, Type> segment = segmentFor(key);
+		Entry<Type> entry;
+		synchronized(segment) {
+			entry = segment.get(key);
+			if(entry != null && entry.version != version) {
+				segment.remove(key);
+				entry = null;
+			}
+		}
+		if(entry == null) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return entry.result;
+	}
+
+	/**
+	 * Store the result of a query, evicting the least recently used entry of its segment if full
+	 * @param key	  the stabbed value
+	 * @param version the version of the tree the result was computed from
+	 * @param result  the result, which must not be changed afterwards
+	 * @return an unmodifiable view of result, as later lookups will return it
+	 */
+	List<Type> put(N key, long version, List<Type> result) {
+		Entry<Type> entry = new Entry<>(version, Collections.unmodifiableList(result));
+		Segment<N, Type> segment = segmentFor(key);
+		synchronized(segment) {
+			Entry<Type> previous = segment.get(key);
+			// a reader still on an older version must not replace a newer result
+			if(previous == null || previous.version <= version)
+				segment.put(key, entry);
+		}
+		return entry.result;
+	}
+
+	/**
+	 * Remove every entry; statistics are kept
+	 */
+	public void clear() {
+		for(Segment<N, Type> segment : segments) {
+			synchronized(segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * @return the number of entries currently stored, including stale ones not yet replaced
+	 */
+	public int size() {
+		int size = 0;
+		for(Segment<N, Type> segment : segments) {
+			synchronized(segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @return the number of results the cache keeps at most
+	 */
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * @return the number of lookups answered from the cache
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of lookups that had to query the tree, including those finding a stale entry
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return the fraction of lookups answered from the cache, or 0 if there were none
+	 */
+	public double getHitRate() {
+		long hits = this.hits.sum();
+		long lookups = hits + misses.sum();
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	/**
+	 * @return the number of entries evicted to make room for others
+	 */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "StabCache{size=" + size() + ", maximumSize=" + maximumSize + ", hits=" + getHits() + ", misses=" + getMisses()
+				+ ", evictions=" + getEvictions() + "}";
+	}
+
+	private Segment<N, Type> segmentFor(N key) {
+		int hash = key.hashCode();
+		hash ^= hash >>> 16;
+		hash *= 0x45d9f3b;
+		hash ^= hash >>> 16;
+		return segments[hash & (segments.length - 1)];
+	}
+
+	private static final class Entry<Type> {
+		private final long version;
+		private final List<Type> result;
+
+		private Entry(long version, List<Type> result) {
+			this.version = version;
+			this.result = result;
+		}
+	}
+
+	/**
+	 * A least recently used map of one share of the keys, guarded by its own monitor
+	 */
+	private static final class Segment<N, Type> extends LinkedHashMap<N, Entry<Type>> {
+		private static final long serialVersionUID = 1L;
+
+		private final int capacity;
+		private final LongAdder evictions;
+
+		private Segment(int capacity, LongAdder evictions) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+			this.evictions = evictions;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<N, Entry<Type>> eldest) {
+			if(size() <= capacity)
+				return false;
+			evictions.increment();
+			return true;
+		}
+	}
+}
@@ -0,0 +1,197 @@
+package intervalTree;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntConsumer;
+
+/**
+ * The TreeLayout class queries the binary form of a {@link FrozenIntervalTree} held in a
+ * {@link ByteBuffer}, shared by the memory-mapped and the off-heap trees.
+ *
+ * The buffer starts with a fixed header, followed by the node and key arrays:
+ * <pre>
+ * int  magic, version, key kind, node count, interval count, reserved
+ * long byte count of whatever the owner stores after the layout
+ * long centers[nodes], startKeys[intervals], endKeys[intervals]
+ * int  leftNodes[nodes], rightNodes[nodes], sliceOffsets[nodes + 1], endOrder[intervals]
+ * </pre>
+ * Intervals are identified by their slot, their position in the start order. Keys are
+ * stored as longs, integral types as they are and floating point types in an
+ * order-preserving bit encoding.
+ */
+final class TreeLayout {
+
+	static final int MAGIC = 0x49545245;
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 32;
+	static final int KEY_LONG = 0;
+	static final int KEY_DOUBLE = 1;
+
+	private static final int NO_NODE = -1;
+
+	private final ByteBuffer buffer;
+	private final int keyKind;
+	private final int nodeCount;
+	private final int size;
+	private final long trailerBytes;
+
+	private final int centers;
+	private final int startKeys;
+	private final int endKeys;
+	private final int leftNodes;
+	private final int rightNodes;
+	private final int sliceOffsets;
+	private final int endOrder;
+	private final int end;
+
+	/**
+	 * @param buffer a buffer starting with a layout written by {@link FrozenIntervalTree#writeLayout}
+	 * @throws IllegalArgumentException if the buffer does not hold a layout of a supported version
+	 */
+	TreeLayout(ByteBuffer buffer) {
+		if(buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC)
+			throw new IllegalArgumentException("not an interval tree snapshot");
+		if(buffer.getInt(4) != VERSION)
+			throw new IllegalArgumentException("unsupported interval tree snapshot version " + buffer.getInt(4));
+		this.buffer = buffer;
+		keyKind = buffer.getInt(8);
+		nodeCount = buffer.getInt(12);
+		size = buffer.getInt(16);
+		trailerBytes = buffer.getLong(24);
+
+		centers = HEADER_BYTES;
+		startKeys = centers + 8 * nodeCount;
+		endKeys = startKeys + 8 * size;
+		leftNodes = endKeys + 8 * size;
+		rightNodes = leftNodes + 4 * nodeCount;
+		sliceOffsets = rightNodes + 4 * nodeCount;
+		endOrder = sliceOffsets + 4 * (nodeCount + 1);
+		end = endOrder + 4 * size;
+		if((keyKind != KEY_LONG && keyKind != KEY_DOUBLE) || nodeCount < 0 || size < 0 || end + trailerBytes != buffer.capacity())
+			throw new IllegalArgumentException("corrupt interval tree snapshot");
+	}
+
+	/**
+	 * @return the number of bytes a layout of the given size takes, trailer excluded
+	 */
+	static long bytes(int nodeCount, int size) {
+		return HEADER_BYTES + 16L * nodeCount + 20L * size + 4L * (nodeCount + 1);
+	}
+
+	/**
+	 * Perform a stabbing query
+	 * @param value	   the encoded key to query at
+	 * @param consumer receives the slot of every interval containing value
+	 */
+	void stab(long value, IntConsumer consumer) {
+		int node = nodeCount > 0 ? 0 : NO_NODE;
+		while(node != NO_NODE) {
+			int from = intAt(sliceOffsets, node);
+			int to = intAt(sliceOffsets, node + 1);
+			long center = longAt(centers, node);
+			if(value < center) {
+				for(int i = from; i < to && longAt(startKeys, i) <= value; i++)
+					consumer.accept(i);
+				node = intAt(leftNodes, node);
+			} else if(value > center) {
+				for(int i = from; i < to && longAt(endKeys, i) >= value; i++)
+					consumer.accept(intAt(endOrder, i));
+				node = intAt(rightNodes, node);
+			} else {
+				for(int i = from; i < to; i++)
+					consumer.accept(i);
+				node = NO_NODE;
+			}
+		}
+	}
+
+	/**
+	 * Perform an interval intersection query
+	 * @param start	   the encoded start of the interval to intersect
+	 * @param end	   the encoded end of the interval to intersect
+	 * @param consumer receives the slot of every intersecting interval
+	 */
+	void query(long start, long end, IntConsumer consumer) {
+		if(nodeCount > 0)
+			query(0, start, end, consumer);
+	}
+
+	private void query(int node, long start, long end, IntConsumer consumer) {
+		int from = intAt(sliceOffsets, node);
+		int to = intAt(sliceOffsets, node + 1);
+		long center = longAt(centers, node);
+
+		if(end < center) {
+			for(int i = from; i < to && longAt(startKeys, i) <= end; i++)
+				consumer.accept(i);
+		} else if(start > center) {
+			for(int i = from; i < to && longAt(endKeys, i) >= start; i++)
+				consumer.accept(intAt(endOrder, i));
+		} else {
+			for(int i = from; i < to; i++)
+				consumer.accept(i);
+		}
+
+		if(start < center && intAt(leftNodes, node) != NO_NODE)
+			query(intAt(leftNodes, node), start, end, consumer);
+		if(end > center && intAt(rightNodes, node) != NO_NODE)
+			query(intAt(rightNodes, node), start, end, consumer);
+	}
+
+	/**
+	 * @return the key encoded the way keys in this layout are
+	 */
+	long encode(Number key) {
+		return encodeKey(key, keyKind);
+	}
+
+	/**
+	 * @return the number of intervals in the layout
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of nodes in the layout
+	 */
+	int nodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * @return the offset of the first byte after the layout, where the owner's trailer starts
+	 */
+	int end() {
+		return end;
+	}
+
+	/**
+	 * @return the key kind the given key is stored as
+	 * @throws IllegalArgumentException if keys of its type cannot be stored as longs without losing order
+	 */
+	static int keyKind(Number key) {
+		if(key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte)
+			return KEY_LONG;
+		if(key instanceof Double || key instanceof Float)
+			return KEY_DOUBLE;
+		throw new IllegalArgumentException("keys of type " + key.getClass().getName() + " cannot be stored outside the heap");
+	}
+
+	/**
+	 * @return the key as a long that orders the same way as the key under compareTo
+	 */
+	static long encodeKey(Number key, int keyKind) {
+		if(keyKind == KEY_LONG)
+			return key.longValue();
+		long bits = Double.doubleToLongBits(key.doubleValue());
+		return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+	}
+
+	private long longAt(int section, int index) {
+		return buffer.getLong(section + 8 * index);
+	}
+
+	private int intAt(int section, int index) {
+		return buffer.getInt(section + 4 * index);
+	}
+}
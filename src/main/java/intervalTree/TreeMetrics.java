@@ -0,0 +1,155 @@
+package intervalTree;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * The TreeMetrics class collects counters about the queries and rebuilds of the trees it is
+ * attached to, through {@link IntervalTree#setMetrics} or {@link ConcurrentIntervalTree#setMetrics}.
+ *
+ * Stabbing and range queries record how many nodes they visited, how many intervals they
+ * scanned and how many of those they returned; rebuilds record their duration and the shape
+ * of the tree they built. Counters are safe to update from many reader threads at once, and
+ * {@link #snapshot()} reads them all without stopping those readers.
+ *
+ * Trees without metrics attached take their uninstrumented query paths, so collecting is
+ * only paid for while it is switched on.
+ */
+public class TreeMetrics {
+
+	/** bucket i of a histogram counts values from 2^(i-1) up to 2^i - 1, bucket 0 counts zeros */
+	static final int BUCKETS = 33;
+
+	private final LongAdder queries = new LongAdder();
+	private final LongAdder nodeVisits = new LongAdder();
+	private final LongAdder intervalsScanned = new LongAdder();
+	private final LongAdder intervalsReturned = new LongAdder();
+	private final LongAdder[] scannedHistogram = new LongAdder[BUCKETS];
+	private final LongAdder rebuilds = new LongAdder();
+	private final LongAdder rebuildNanos = new LongAdder();
+	private volatile long lastRebuildNanos;
+	private volatile Shape shape = new Shape(0, new long[0], 0);
+
+	public TreeMetrics() {
+		for(int i = 0; i < BUCKETS; i++)
+			scannedHistogram[i] = new LongAdder();
+	}
+
+	/**
+	 * @return a point-in-time copy of every counter
+	 */
+	public MetricsSnapshot snapshot() {
+		long[] histogram = new long[BUCKETS];
+		for(int i = 0; i < BUCKETS; i++)
+			histogram[i] = scannedHistogram[i].sum();
+		Shape shape = this.shape;
+		return new MetricsSnapshot(queries.sum(), nodeVisits.sum(), intervalsScanned.sum(), intervalsReturned.sum(), histogram,
+				rebuilds.sum(), rebuildNanos.sum(), lastRebuildNanos, shape.nodeCount, shape.depthHistogram.clone(), shape.maxIntervalsPerNode);
+	}
+
+	/**
+	 * Record the cost of one query
+	 */
+	void recordQuery(QueryCost cost) {
+		queries.increment();
+		nodeVisits.add(cost.nodes);
+		intervalsScanned.add(cost.scanned);
+		intervalsReturned.add(cost.returned);
+		scannedHistogram[32 - Integer.numberOfLeadingZeros(cost.scanned)].increment();
+	}
+
+	/**
+	 * Record one rebuild and the shape of the tree it produced
+	 * @param nanos how long the rebuild took
+	 * @param head	the root of the new tree
+	 */
+	void recordRebuild(long nanos, IntervalNode<?, ?> head) {
+		rebuilds.increment();
+		rebuildNanos.add(nanos);
+		lastRebuildNanos = nanos;
+
+		int nodeCount = 0;
+		int maxIntervals = 0;
+		long[] depths = new long[8];
+		int height = 0;
+		Deque<IntervalNode<?, ?>> nodes = new ArrayDeque<>();
+		Deque<Integer> nodeDepths = new ArrayDeque<>();
+		if(!head.getIntervals().isEmpty() || head.getLeft() != null || head.getRight() != null) {
+			nodes.push(head);
+			nodeDepths.push(0);
+		}
+		while(!nodes.isEmpty()) {
+			IntervalNode<?, ?> node = nodes.pop();
+			int depth = nodeDepths.pop();
+			nodeCount++;
+			maxIntervals = Math.max(maxIntervals, node.getIntervals().size());
+			if(depth >= depths.length)
+				depths = Arrays.copyOf(depths, depths.length * 2);
+			depths[depth]++;
+			height = Math.max(height, depth + 1);
+			if(node.getLeft() != null) {
+				nodes.push(node.getLeft());
+				nodeDepths.push(depth + 1);
+			}
+			if(node.getRight() != null) {
+				nodes.push(node.getRight());
+				nodeDepths.push(depth + 1);
+			}
+		}
+		shape = new Shape(nodeCount, Arrays.copyOf(depths, height), maxIntervals);
+	}
+
+	/**
+	 * Perform a stabbing query on a tree, counting its cost if metrics are attached
+	 * @param metrics the metrics to record to, or null to take the uninstrumented path
+	 */
+	static <N extends Number & Comparable<N>, Type, C> void stab(TreeMetrics metrics, IntervalNode<N, Type> head, N value, C context,
+			BiConsumer<? super Interval<N, Type>, ? super C> visitor) {
+		if(metrics == null) {
+			head.stab(value, context, visitor);
+		} else {
+			QueryCost cost = new QueryCost();
+			head.stab(value, context, visitor, cost);
+			metrics.recordQuery(cost);
+		}
+	}
+
+	/**
+	 * Perform an interval intersection query on a tree, counting its cost if metrics are attached
+	 * @param metrics the metrics to record to, or null to take the uninstrumented path
+	 */
+	static <N extends Number & Comparable<N>, Type, C> void query(TreeMetrics metrics, IntervalNode<N, Type> head, N start, N end, C context,
+			BiConsumer<? super Interval<N, Type>, ? super C> visitor) {
+		if(metrics == null) {
+			head.query(start, end, context, visitor);
+		} else {
+			QueryCost cost = new QueryCost();
+			head.query(start, end, context, visitor, cost);
+			metrics.recordQuery(cost);
+		}
+	}
+
+	/**
+	 * The cost of a single query, counted by the instrumented query paths of {@link IntervalNode}
+	 */
+	static final class QueryCost {
+		int nodes;
+		int scanned;
+		int returned;
+	}
+
+	private static final class Shape {
+		final int nodeCount;
+		final long[] depthHistogram;
+		final int maxIntervalsPerNode;
+
+		Shape(int nodeCount, long[] depthHistogram, int maxIntervalsPerNode) {
+			this.nodeCount = nodeCount;
+			this.depthHistogram = depthHistogram;
+			this.maxIntervalsPerNode = maxIntervalsPerNode;
+		}
+	}
+}
@@ -0,0 +1,246 @@
+package intervalTree;
+
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+
+/**
+ * The UInt128IntervalNode class contains the interval tree information for one single node
+ * of a {@link UInt128IntervalTree}. It mirrors {@link LongIntervalNode}, with every key held
+ * as a pair of longs, the high and low 64 bits of an unsigned 128-bit number.
+ */
+public class UInt128IntervalNode {
+
+	private static final int[] NO_INTERVALS = new int[0];
+
+	private int[] byStart;
+	private int[] byEnd;
+	private long centerHigh;
+	private long centerLow;
+	private UInt128IntervalNode leftNode;
+	private UInt128IntervalNode rightNode;
+
+	UInt128IntervalNode() {
+		byStart = NO_INTERVALS;
+		byEnd = NO_INTERVALS;
+		leftNode = null;
+		rightNode = null;
+	}
+
+	/**
+	 * @param indices the indices of the intervals to store in this subtree, in insertion order
+	 * @param count	  the number of valid entries in indices
+	 * @param keys	  the endpoints of every interval in the tree
+	 */
+	UInt128IntervalNode(int[] indices, int count, Keys keys) {
+
+		int median = getMedian(indices, count, keys);
+		centerHigh = keys.endpointHigh(median);
+		centerLow = keys.endpointLow(median);
+
+		int[] left = new int[count];
+		int[] right = new int[count];
+		int[] mine = new int[count];
+		int leftCount = 0;
+		int rightCount = 0;
+		int mineCount = 0;
+
+		for(int i = 0; i < count; i++) {
+			int index = indices[i];
+			if(compare(keys.endHigh[index], keys.endLow[index], centerHigh, centerLow) < 0)
+				left[leftCount++] = index;
+			else if(compare(keys.startHigh[index], keys.startLow[index], centerHigh, centerLow) > 0)
+				right[rightCount++] = index;
+			else
+				mine[mineCount++] = index;
+		}
+
+		byStart = Arrays.copyOf(mine, mineCount);
+		sort(byStart, (a, b) -> {
+			int startComparison = compare(keys.startHigh[a], keys.startLow[a], keys.startHigh[b], keys.startLow[b]);
+			return startComparison != 0 ? startComparison : compare(keys.endHigh[a], keys.endLow[a], keys.endHigh[b], keys.endLow[b]);
+		});
+		byEnd = byStart.clone();
+		sort(byEnd, (a, b) -> compare(keys.endHigh[b], keys.endLow[b], keys.endHigh[a], keys.endLow[a]));
+
+		if(leftCount > 0)
+			leftNode = new UInt128IntervalNode(left, leftCount, keys);
+		if(rightCount > 0)
+			rightNode = new UInt128IntervalNode(right, rightCount, keys);
+	}
+
+	/**
+	 * Perform a stabbing query on the node
+	 * @param high	   the high 64 bits of the value to query at
+	 * @param low	   the low 64 bits of the value to query at
+	 * @param keys	   the endpoints of every interval in the tree
+	 * @param consumer receives the index of every interval containing the value
+	 */
+	void stab(long high, long low, Keys keys, IntConsumer consumer) {
+		UInt128IntervalNode node = this;
+		while(node != null) {
+			int comparison = compare(high, low, node.centerHigh, node.centerLow);
+			if(comparison < 0) {
+				for(int index : node.byStart) {
+					if(compare(keys.startHigh[index], keys.startLow[index], high, low) > 0)
+						break;
+					consumer.accept(index);
+				}
+				node = node.leftNode;
+			} else if(comparison > 0) {
+				for(int index : node.byEnd) {
+					if(compare(keys.endHigh[index], keys.endLow[index], high, low) < 0)
+						break;
+					consumer.accept(index);
+				}
+				node = node.rightNode;
+			} else {
+				for(int index : node.byStart)
+					consumer.accept(index);
+				node = null;
+			}
+		}
+	}
+
+	/**
+	 * Perform an interval intersection query on the node
+	 * @param startHigh the high 64 bits of the start of the interval to intersect
+	 * @param startLow	the low 64 bits of the start of the interval to intersect
+	 * @param endHigh	the high 64 bits of the end of the interval to intersect
+	 * @param endLow	the low 64 bits of the end of the interval to intersect
+	 * @param keys		the endpoints of every interval in the tree
+	 * @param consumer	receives the index of every intersecting interval
+	 */
+	void query(long startHigh, long startLow, long endHigh, long endLow, Keys keys, IntConsumer consumer) {
+		int startComparison = compare(startHigh, startLow, centerHigh, centerLow);
+		int endComparison = compare(endHigh, endLow, centerHigh, centerLow);
+		if(endComparison < 0) {
+			for(int index : byStart) {
+				if(compare(keys.startHigh[index], keys.startLow[index], endHigh, endLow) > 0)
+					break;
+				consumer.accept(index);
+			}
+		} else if(startComparison > 0) {
+			for(int index : byEnd) {
+				if(compare(keys.endHigh[index], keys.endLow[index], startHigh, startLow) < 0)
+					break;
+				consumer.accept(index);
+			}
+		} else {
+			for(int index : byStart)
+				consumer.accept(index);
+		}
+
+		if(startComparison < 0 && leftNode != null)
+			leftNode.query(startHigh, startLow, endHigh, endLow, keys, consumer);
+		if(endComparison > 0 && rightNode != null)
+			rightNode.query(startHigh, startLow, endHigh, endLow, keys, consumer);
+	}
+
+	UInt128IntervalNode getLeft() {
+		return leftNode;
+	}
+
+	UInt128IntervalNode getRight() {
+		return rightNode;
+	}
+
+	/**
+	 * @return the indices of the intervals stored at this node, ordered by start then end
+	 */
+	int[] getIntervals() {
+		return byStart;
+	}
+
+	/**
+	 * Compare two unsigned 128-bit numbers, each given as its high and low 64 bits
+	 */
+	static int compare(long aHigh, long aLow, long bHigh, long bLow) {
+		int highComparison = Long.compareUnsigned(aHigh, bHigh);
+		return highComparison != 0 ? highComparison : Long.compareUnsigned(aLow, bLow);
+	}
+
+	/**
+	 * @return the endpoint id (see {@link Keys#endpointHigh}) of the median of the distinct
+	 *		   endpoints of the given intervals, not interpolated
+	 */
+	private static int getMedian(int[] indices, int count, Keys keys) {
+		int[] endpoints = new int[count * 2];
+		for(int i = 0; i < count; i++) {
+			endpoints[2 * i] = 2 * indices[i];
+			endpoints[2 * i + 1] = 2 * indices[i] + 1;
+		}
+		IntBinaryOperator comparator = (a, b) -> compare(keys.endpointHigh(a), keys.endpointLow(a), keys.endpointHigh(b), keys.endpointLow(b));
+		sort(endpoints, comparator);
+
+		int distinct = 0;
+		for(int i = 0; i < endpoints.length; i++) {
+			if(i == 0 || comparator.applyAsInt(endpoints[i], endpoints[distinct - 1]) != 0)
+				endpoints[distinct++] = endpoints[i];
+		}
+		return endpoints[distinct / 2];
+	}
+
+	/**
+	 * Stable merge sort of ints under the given comparator
+	 */
+	private static void sort(int[] values, IntBinaryOperator comparator) {
+		if(values.length > 1)
+			mergeSort(values, values.clone(), 0, values.length, comparator);
+	}
+
+	private static void mergeSort(int[] dest, int[] src, int from, int to, IntBinaryOperator comparator) {
+		if(to - from < 2)
+			return;
+		int mid = (from + to) >>> 1;
+		mergeSort(src, dest, from, mid, comparator);
+		mergeSort(src, dest, mid, to, comparator);
+
+		int i = from;
+		int j = mid;
+		for(int k = from; k < to; k++) {
+			if(j >= to || (i < mid && comparator.applyAsInt(src[i], src[j]) <= 0))
+				dest[k] = src[i++];
+			else
+				dest[k] = src[j++];
+		}
+	}
+
+	@Override
+	public String toString() {
+		return UInt128IntervalTree.toString(centerHigh, centerLow) + ": " + byStart.length + " intervals";
+	}
+
+	/**
+	 * The endpoint arrays of a {@link UInt128IntervalTree}, shared by all of its nodes
+	 */
+	static final class Keys {
+		final long[] startHigh;
+		final long[] startLow;
+		final long[] endHigh;
+		final long[] endLow;
+
+		Keys(long[] startHigh, long[] startLow, long[] endHigh, long[] endLow) {
+			this.startHigh = startHigh;
+			this.startLow = startLow;
+			this.endHigh = endHigh;
+			this.endLow = endLow;
+		}
+
+		/**
+		 * @param endpoint twice an interval index for its start, plus one for its end
+		 * @return the high 64 bits of that endpoint
+		 */
+		long endpointHigh(int endpoint) {
+			return (endpoint & 1) == 0 ? startHigh[endpoint >> 1] : endHigh[endpoint >> 1];
+		}
+
+		/**
+		 * @param endpoint twice an interval index for its start, plus one for its end
+		 * @return the low 64 bits of that endpoint
+		 */
+		long endpointLow(int endpoint) {
+			return (endpoint & 1) == 0 ? startLow[endpoint >> 1] : endLow[endpoint >> 1];
+		}
+	}
+}
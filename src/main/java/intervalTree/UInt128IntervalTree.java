@@ -0,0 +1,264 @@
+package intervalTree;
+
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A UInt128IntervalTree is an {@link IntervalTree} specialised for unsigned 128-bit
+ * endpoints, such as IPv6 addresses, without resorting to {@link BigInteger}.
+ *
+ * Every endpoint is stored inline as two longs, its high and low 64 bits, in parallel
+ * arrays, and compared as unsigned numbers. Addresses can be passed either as those
+ * (high, low) pairs or as {@link InetAddress} objects. IPv4 addresses are mapped into
+ * the IPv6 space as ::ffff:a.b.c.d, so IPv4 and IPv6 ranges can share one tree.
+ *
+ * @param <Type> the type of objects to associate
+ */
+public class UInt128IntervalTree<Type> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+	private static final long IPV4_MAPPED_PREFIX = 0xffff00000000L;
+
+	private UInt128IntervalNode head;
+	private long[] startHigh;
+	private long[] startLow;
+	private long[] endHigh;
+	private long[] endLow;
+	private Object[] data;
+	private int count;
+	private boolean inSync;
+	private int size;
+
+	/**
+	 * Instantiate a new interval tree with no intervals
+	 */
+	public UInt128IntervalTree() {
+		this.head = new UInt128IntervalNode();
+		this.startHigh = new long[DEFAULT_CAPACITY];
+		this.startLow = new long[DEFAULT_CAPACITY];
+		this.endHigh = new long[DEFAULT_CAPACITY];
+		this.endLow = new long[DEFAULT_CAPACITY];
+		this.data = new Object[DEFAULT_CAPACITY];
+		this.count = 0;
+		this.inSync = false;
+		this.size = 0;
+	}
+
+	/**
+	 * Perform a stabbing query, returning the associated data
+	 * Will rebuild the tree if out of sync
+	 * @param high the high 64 bits of the number to stab
+	 * @param low  the low 64 bits of the number to stab
+	 * @return	   the data associated with all intervals that contain the number
+	 */
+	public List<Type> get(long high, long low) {
+		build();
+		List<Type> result = new ArrayList<>();
+		head.stab(high, low, keys(), index -> result.add(dataAt(index)));
+		return result;
+	}
+
+	/**
+	 * Perform a stabbing query, returning the associated data
+	 * Will rebuild the tree if out of sync
+	 * @param address the address to stab
+	 * @return	   the data associated with all intervals that contain address
+	 */
+	public List<Type> get(InetAddress address) {
+		byte[] bytes = address.getAddress();
+		return get(high(bytes), low(bytes));
+	}
+
+	/**
+	 * Perform an interval query, returning the associated data
+	 * Will rebuild the tree if out of sync
+	 * @param startHigh the high 64 bits of the start of the interval to check
+	 * @param startLow	the low 64 bits of the start of the interval to check
+	 * @param endHigh	the high 64 bits of the end of the interval to check
+	 * @param endLow	the low 64 bits of the end of the interval to check
+	 * @return	  	the data associated with all intervals that intersect target
+	 */
+	public List<Type> get(long startHigh, long startLow, long endHigh, long endLow) {
+		if (UInt128IntervalNode.compare(startHigh, startLow, endHigh, endLow) > 0) {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+		build();
+		List<Type> result = new ArrayList<>();
+		head.query(startHigh, startLow, endHigh, endLow, keys(), index -> result.add(dataAt(index)));
+		return result;
+	}
+
+	/**
+	 * Perform an interval query, returning the associated data
+	 * Will rebuild the tree if out of sync
+	 * @param start the first address of the range to check
+	 * @param end	the last address of the range to check
+	 * @return	  	the data associated with all intervals that intersect target
+	 */
+	public List<Type> get(InetAddress start, InetAddress end) {
+		byte[] startBytes = start.getAddress();
+		byte[] endBytes = end.getAddress();
+		return get(high(startBytes), low(startBytes), high(endBytes), low(endBytes));
+	}
+
+	/**
+	 * Add an interval to the interval tree's list
+	 * Will not rebuild the tree until the next query or call to build
+	 * @param startHigh the high 64 bits of the beginning of the interval
+	 * @param startLow	the low 64 bits of the beginning of the interval
+	 * @param endHigh	the high 64 bits of the end of the interval
+	 * @param endLow	the low 64 bits of the end of the interval
+	 * @param data		the data to associate
+	 */
+	public void addInterval(long startHigh, long startLow, long endHigh, long endLow, Type data) {
+		if (UInt128IntervalNode.compare(endHigh, endLow, startHigh, startLow) >= 0) {
+			inSync = false;
+			ensureCapacity(count + 1);
+			this.startHigh[count] = startHigh;
+			this.startLow[count] = startLow;
+			this.endHigh[count] = endHigh;
+			this.endLow[count] = endLow;
+			this.data[count] = data;
+			count++;
+		} else {
+			throw new IllegalArgumentException("beginning of range must be less than end");
+		}
+	}
+
+	/**
+	 * Add an address range to the interval tree's list
+	 * Will not rebuild the tree until the next query or call to build
+	 * @param start the first address of the range
+	 * @param end	the last address of the range
+	 * @param data	the data to associate
+	 */
+	public void addInterval(InetAddress start, InetAddress end, Type data) {
+		byte[] startBytes = start.getAddress();
+		byte[] endBytes = end.getAddress();
+		addInterval(high(startBytes), low(startBytes), high(endBytes), low(endBytes), data);
+	}
+
+	/**
+	 * Determine whether this interval tree is currently a reflection of all intervals in the interval list
+	 * @return true if no changes have been made since the last build
+	 */
+	public boolean inSync() {
+		return inSync;
+	}
+
+	/**
+	 * Build the interval tree to reflect the list of intervals,
+	 * Will not run if this is currently in sync
+	 */
+	private void build() {
+		if(!inSync) {
+			if(count == 0) {
+				head = new UInt128IntervalNode();
+			} else {
+				int[] indices = new int[count];
+				for(int i = 0; i < count; i++)
+					indices[i] = i;
+				head = new UInt128IntervalNode(indices, count, keys());
+			}
+			inSync = true;
+			size = count;
+		}
+	}
+
+	/**
+	 * @return the number of entries in the currently built interval tree
+	 */
+	public int currentSize() {
+		return size;
+	}
+
+	/**
+	 * @return the number of entries in the interval list, equal to .size() if inSync()
+	 */
+	public int listSize() {
+		return count;
+	}
+
+	/**
+	 * @return the high 64 bits of an IPv6 address, or of an IPv4 address mapped into IPv6
+	 */
+	static long high(byte[] address) {
+		if(address.length == 4)
+			return 0;
+		return toLong(address, 0);
+	}
+
+	/**
+	 * @return the low 64 bits of an IPv6 address, or of an IPv4 address mapped into IPv6
+	 */
+	static long low(byte[] address) {
+		if(address.length == 4)
+			return IPV4_MAPPED_PREFIX | (toLong(address, 0) >>> 32);
+		return toLong(address, 8);
+	}
+
+	/**
+	 * @return up to eight bytes from offset, big-endian, left aligned in a long
+	 */
+	private static long toLong(byte[] bytes, int offset) {
+		long result = 0;
+		for(int i = 0; i < 8; i++) {
+			result <<= 8;
+			if(offset + i < bytes.length)
+				result |= bytes[offset + i] & 0xffL;
+		}
+		return result;
+	}
+
+	/**
+	 * @return the decimal representation of an unsigned 128-bit number
+	 */
+	static String toString(long high, long low) {
+		return new BigInteger(Long.toUnsignedString(high)).shiftLeft(64).or(new BigInteger(Long.toUnsignedString(low))).toString();
+	}
+
+	private UInt128IntervalNode.Keys keys() {
+		return new UInt128IntervalNode.Keys(startHigh, startLow, endHigh, endLow);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Type dataAt(int index) {
+		return (Type) data[index];
+	}
+
+	private void ensureCapacity(int capacity) {
+		if(capacity > startHigh.length) {
+			int newCapacity = Math.max(capacity, startHigh.length + (startHigh.length >> 1));
+			startHigh = Arrays.copyOf(startHigh, newCapacity);
+			startLow = Arrays.copyOf(startLow, newCapacity);
+			endHigh = Arrays.copyOf(endHigh, newCapacity);
+			endLow = Arrays.copyOf(endLow, newCapacity);
+			data = Arrays.copyOf(data, newCapacity);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return nodeString(head,0);
+	}
+
+	private String nodeString(UInt128IntervalNode node, int level) {
+		if(node == null)
+			return "";
+
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < level; i++)
+			sb.append("\t");
+		sb.append(node).append(": ");
+		for(int index : node.getIntervals())
+			sb.append("(").append(toString(startHigh[index], startLow[index])).append(",").append(toString(endHigh[index], endLow[index]))
+					.append(",").append(data[index]).append(") ");
+		sb.append("\n");
+		sb.append(nodeString(node.getLeft(), level + 1));
+		sb.append(nodeString(node.getRight(), level + 1));
+		return sb.toString();
+	}
+}
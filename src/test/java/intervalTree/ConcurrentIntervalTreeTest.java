@@ -0,0 +1,112 @@
+package intervalTree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ConcurrentIntervalTreeTest {
+    @Test
+    public void concurrentIntervalTreeTest_ChangesVisibleAfterPublish() {
+        ConcurrentIntervalTree<Integer, String> tree = new ConcurrentIntervalTree<>(() -> 0);
+        tree.addInterval(0, 10, "0-10");
+        tree.addInterval(5, 15, "5-15");
+
+        assertFalse(tree.inSync());
+        assertTrue(tree.get(7).isEmpty());
+        assertEquals(0, tree.version());
+
+        tree.publish();
+
+        assertTrue(tree.inSync());
+        assertEquals(1, tree.version());
+        assertEquals(2, tree.currentSize());
+        assertEquals(2, tree.get(7).size());
+
+        assertTrue(tree.removeInterval(new Interval<>(0, 10, "0-10")));
+        assertEquals(2, tree.get(7).size());
+        tree.publish();
+        assertEquals("5-15", tree.get(7).get(0));
+        assertEquals("5-15", tree.get(0, 20).get(0));
+    }
+
+    @Test
+    public void concurrentIntervalTreeTest_ReadersSeeWholeSnapshots() throws InterruptedException {
+        ConcurrentIntervalTree<Integer, Integer> tree = new ConcurrentIntervalTree<>(() -> 0);
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            Thread reader = new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    // every batch publishes ten intervals covering 50, so a torn snapshot shows up as a partial count
+                    if (tree.get(50).size() % 10 != 0)
+                        failure.set("saw a partially published batch");
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+
+        for (int batch = 0; batch < 50; batch++) {
+            List<Interval<Integer, Integer>> intervals = new ArrayList<>();
+            for (int i = 0; i < 10; i++)
+                intervals.add(new Interval<>(i, 100 - i, batch));
+            tree.addIntervals(intervals);
+            tree.publish();
+        }
+        for (Thread reader : readers)
+            reader.join();
+
+        assertEquals(null, failure.get());
+        assertEquals(500, tree.get(50).size());
+    }
+
+    @Test
+    public void concurrentIntervalTreeTest_StatusReportsPendingChanges() {
+        ConcurrentIntervalTree<Integer, String> tree = new ConcurrentIntervalTree<>(() -> 0);
+        tree.addInterval(0, 10, "0-10");
+        tree.addInterval(5, 15, "5-15");
+
+        RebuildStatus status = tree.status();
+        assertFalse(status.inSync());
+        assertEquals(2, status.getPendingChanges());
+        assertTrue(status.getStalenessNanos() >= 0);
+
+        tree.publish();
+
+        status = tree.status();
+        assertTrue(status.inSync());
+        assertEquals(0, status.getStalenessNanos());
+        assertEquals(1, status.getVersion());
+        assertFalse(status.isRebuilding());
+    }
+
+    @Test
+    public void concurrentIntervalTreeTest_BackgroundRebuild() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ConcurrentIntervalTree<Integer, String> tree = new ConcurrentIntervalTree<>(() -> 0, executor);
+            for (int i = 0; i < 100; i++)
+                tree.addInterval(i, i + 10, Integer.toString(i));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!tree.inSync() && System.nanoTime() < deadline)
+                Thread.sleep(1);
+
+            assertTrue(tree.inSync());
+            assertEquals(100, tree.currentSize());
+            assertEquals(11, tree.get(50).size());
+            assertTrue(tree.status().getVersion() >= 1);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package intervalTree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class DisjointIntervalTreeTest {
+    @Test
+    public void disjointIntervalTreeTest_StabAndRange() {
+        List<Interval<Long, String>> blocks = new ArrayList<>();
+        blocks.add(new Interval<>(30L, 39L, "C"));
+        blocks.add(new Interval<>(0L, 9L, "A"));
+        blocks.add(new Interval<>(10L, 19L, "B"));
+        blocks.add(new Interval<>(50L, 50L, "D"));
+        DisjointIntervalTree<Long, String> tree = new DisjointIntervalTree<>(blocks);
+
+        assertEquals(4, tree.size());
+        assertEquals("A", tree.get(0L).get(0));
+        assertEquals("B", tree.get(19L).get(0));
+        assertEquals("D", tree.findFirst(50L));
+        assertTrue(tree.get(25L).isEmpty());
+        assertEquals(null, tree.findFirst(-1L));
+        assertFalse(tree.containsAny(51L));
+
+        List<String> expected = new ArrayList<>();
+        expected.add("B");
+        expected.add("C");
+        assertEquals(expected, tree.get(15L, 35L));
+        assertEquals(2, tree.count(15L, 35L));
+        assertEquals(new Interval<>(10L, 19L, "B"), tree.getIntervals(15L, 25L).get(0));
+        assertTrue(tree.get(40L, 49L).isEmpty());
+        assertEquals(0, tree.count(100L, 200L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void disjointIntervalTreeTest_Overlap_ThrowsIllegalArgument() {
+        List<Interval<Integer, String>> blocks = new ArrayList<>();
+        blocks.add(new Interval<>(0, 10, "0-10"));
+        blocks.add(new Interval<>(10, 20, "10-20"));
+        new DisjointIntervalTree<>(blocks);
+    }
+
+    @Test
+    public void disjointIntervalTreeTest_MatchesIntervalTree() {
+        Random random = new Random(13);
+        IntervalTree<Integer, Integer> tree = new IntervalTree<>(() -> 0);
+        List<Interval<Integer, Integer>> blocks = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < 1000; i++) {
+            start += random.nextInt(10);
+            int end = start + random.nextInt(20);
+            tree.addInterval(start, end, i);
+            blocks.add(new Interval<>(start, end, i));
+            start = end + 1;
+        }
+        DisjointIntervalTree<Integer, Integer> disjoint = new DisjointIntervalTree<>(blocks, false);
+
+        for (int i = 0; i < 1000; i++) {
+            int point = random.nextInt(start + 100) - 50;
+            assertEquals(tree.get(point), disjoint.get(point));
+            int end = point + random.nextInt(100);
+            List<Integer> expected = tree.get(point, end);
+            expected.sort(null);
+            assertEquals(expected, disjoint.get(point, end));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package intervalTree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class DynamicIntervalTreeTest {
+    @Test
+    public void dynamicIntervalTreeTest_AddAndQuery() {
+        DynamicIntervalTree<Integer, String> tree = new DynamicIntervalTree<>();
+        tree.addInterval(0, 10, "0-10");
+        tree.addInterval(new Interval<>(10, 20, "10-20"));
+        tree.addInterval(20, 30, "20-30");
+        tree.addInterval(30, 40, "30-40");
+        tree.addInterval(0, 100, "0-100");
+        tree.addInterval(32, 32, "32");
+
+        List<String> expected = new ArrayList<>();
+        expected.add("0-100");
+        expected.add("30-40");
+        expected.add("32");
+        assertEquals(expected, tree.get(32));
+        assertEquals("0-10", tree.get(5, 6).get(0));
+        assertTrue(tree.get(135).isEmpty());
+        assertEquals(6, tree.size());
+    }
+
+    @Test
+    public void dynamicIntervalTreeTest_RemoveInterval() {
+        DynamicIntervalTree<Integer, String> tree = new DynamicIntervalTree<>();
+        tree.addInterval(0, 10, "a");
+        tree.addInterval(0, 10, "b");
+        tree.addInterval(5, 15, "c");
+
+        assertTrue(tree.removeInterval(0, 10, "a"));
+        assertFalse(tree.removeInterval(0, 10, "a"));
+        assertEquals(2, tree.size());
+
+        List<String> expected = new ArrayList<>();
+        expected.add("b");
+        expected.add("c");
+        assertEquals(expected, tree.get(7));
+
+        assertTrue(tree.removeInterval(new Interval<>(0, 10, "b")));
+        assertEquals("c", tree.get(7).get(0));
+        assertTrue(tree.get(3).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void dynamicIntervalTreeTest_InvertedRange_ThrowsIllegalArgument() {
+        DynamicIntervalTree<Integer, String> tree = new DynamicIntervalTree<>();
+        tree.addInterval(20, 10, "20 to 10");
+    }
+
+    @Test
+    public void dynamicIntervalTreeTest_MatchesStaticTreeUnderChurn() {
+        Random random = new Random(11);
+        DynamicIntervalTree<Integer, Integer> dynamic = new DynamicIntervalTree<>();
+        IntervalTree<Integer, Integer> tree = new IntervalTree<>(() -> 0);
+        List<Interval<Integer, Integer>> live = new ArrayList<>();
+
+        for (int i = 0; i < 3000; i++) {
+            if (!live.isEmpty() && random.nextInt(3) == 0) {
+                Interval<Integer, Integer> interval = live.remove(random.nextInt(live.size()));
+                assertTrue(dynamic.removeInterval(interval));
+                assertTrue(tree.removeInterval(interval));
+            } else {
+                int start = random.nextInt(10000);
+                Interval<Integer, Integer> interval = new Interval<>(start, start + random.nextInt(300), i);
+                live.add(interval);
+                dynamic.addInterval(interval);
+                tree.addInterval(interval);
+            }
+
+            if (i % 50 == 0) {
+                int point = random.nextInt(10300);
+                assertEquals(sorted(tree.get(point)), sorted(dynamic.get(point)));
+                assertEquals(sorted(tree.get(point, point + 200)), sorted(dynamic.get(point, point + 200)));
+            }
+        }
+        assertEquals(live.size(), dynamic.size());
+    }
+
+    private static List<Integer> sorted(List<Integer> list) {
+        List<Integer> copy = new ArrayList<>(list);
+        Collections.sort(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,66 @@
+package intervalTree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class FrozenIntervalTreeTest {
+    @Test
+    public void frozenIntervalTreeTest_StabAndRange() {
+        IntervalTree<Integer, String> tree = new IntervalTree<>(() -> 0);
+        tree.addInterval(0, 10, "0-10");
+        tree.addInterval(10, 20, "10-20");
+        tree.addInterval(20, 30, "20-30");
+        tree.addInterval(30, 40, "30-40");
+        tree.addInterval(0, 100, "0-100");
+        tree.addInterval(32, 32, "32");
+
+        FrozenIntervalTree<Integer, String> frozen = tree.freeze();
+
+        assertEquals(6, frozen.size());
+        assertEquals(sorted(tree.get(32)), sorted(frozen.get(32)));
+        assertEquals("0-100", frozen.get(50).get(0));
+        assertTrue(frozen.getIntervals(5).contains(new Interval<>(0, 10, "0-10")));
+        assertEquals(sorted(tree.get(11, 25)), sorted(frozen.get(11, 25)));
+        assertTrue(frozen.get(135).isEmpty());
+    }
+
+    @Test
+    public void frozenIntervalTreeTest_EmptyTree() {
+        IntervalTree<Integer, String> tree = new IntervalTree<>(() -> 0);
+        FrozenIntervalTree<Integer, String> frozen = tree.freeze();
+
+        assertEquals(0, frozen.size());
+        assertTrue(frozen.get(5).isEmpty());
+        assertTrue(frozen.get(5, 10).isEmpty());
+    }
+
+    @Test
+    public void frozenIntervalTreeTest_MatchesSourceTree() {
+        Random random = new Random(7);
+        IntervalTree<Long, String> tree = new IntervalTree<>(() -> 0L);
+        for (int i = 0; i < 2000; i++) {
+            long start = random.nextInt(100000);
+            tree.addInterval(start, start + random.nextInt(2000), Integer.toString(i));
+        }
+        FrozenIntervalTree<Long, String> frozen = tree.freeze();
+
+        for (int i = 0; i < 2000; i++) {
+            long point = random.nextInt(102000) - 1000;
+            assertEquals(tree.get(point), frozen.get(point));
+            long end = point + random.nextInt(1000);
+            assertEquals(tree.get(point, end), frozen.get(point, end));
+        }
+    }
+
+    private static List<String> sorted(List<String> list) {
+        List<String> copy = new ArrayList<>(list);
+        Collections.sort(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,46 @@
+package intervalTree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class IntIntervalTreeTest {
+    @Test
+    public void intIntervalTreeTest_StabAndRange() {
+        IntIntervalTree<String> tree = new IntIntervalTree<>();
+        tree.addInterval(0, 10, "0-10");
+        tree.addInterval(new IntInterval<>(10, 20, "10-20"));
+        tree.addInterval(20, 30, "20-30");
+        tree.addInterval(30, 40, "30-40");
+        tree.addInterval(0, 100, "0-100");
+        tree.addInterval(32, 32, "32");
+
+        List<String> expected = new ArrayList<>();
+        expected.add("0-100");
+        expected.add("30-40");
+        expected.add("32");
+        assertEquals(expected, tree.get(32));
+
+        List<String> range = tree.get(11, 19);
+        assertEquals(2, range.size());
+        assertTrue(range.contains("10-20"));
+        assertTrue(range.contains("0-100"));
+        assertTrue(tree.get(135).isEmpty());
+    }
+
+    @Test
+    public void intIntervalTreeTest_ListConstructor() {
+        List<IntInterval<String>> intervals = new ArrayList<>();
+        intervals.add(new IntInterval<>(0, 10, "0-10"));
+        intervals.add(new IntInterval<>(5, 15, "5-15"));
+        IntIntervalTree<String> tree = new IntIntervalTree<>(intervals);
+
+        assertTrue(tree.inSync());
+        assertEquals(2, tree.currentSize());
+        assertEquals(2, tree.get(7).size());
+        assertEquals("5-15", tree.get(12).get(0));
+    }
+}
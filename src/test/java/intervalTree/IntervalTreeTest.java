@@ -1,12 +1,22 @@
 package intervalTree;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 public class IntervalTreeTest {
     @Test
@@ -217,4 +227,396 @@ public class IntervalTreeTest {
         List<String> expected = new ArrayList<>();
         assertEquals(expected, tree.get(135));
     }
+
+    @Test
+    public void intervalTreeTest_WideIntervalsMatchBruteForce() {
+        Random random = new Random(3);
+        IntervalTree<Integer, Integer> tree = new IntervalTree<>(() -> 0);
+        List<Interval<Integer, Integer>> intervals = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int start = random.nextInt(1000);
+            // every fifth interval is wide enough to land near the root
+            int end = start + (i % 5 == 0 ? random.nextInt(5000) : random.nextInt(20));
+            tree.addInterval(start, end, i);
+            intervals.add(new Interval<>(start, end, i));
+        }
+
+        for (int point = -10; point < 6010; point += 7) {
+            List<Integer> expected = new ArrayList<>();
+            for (Interval<Integer, Integer> interval : intervals)
+                if (interval.contains(point))
+                    expected.add(interval.getData());
+            List<Integer> actual = tree.get(point);
+            Collections.sort(expected);
+            Collections.sort(actual);
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void intervalTreeTest_VisitorQueries() {
+        IntervalTree<Integer, String> tree = new IntervalTree<>(() -> 0);
+        tree.addInterval(0, 10, "0-10");
+        tree.addInterval(10, 20, "10-20");
+        tree.addInterval(30, 40, "30-40");
+        tree.addInterval(0, 100, "0-100");
+
+        List<Interval<Integer, String>> visited = new ArrayList<>();
+        tree.stab(35, visited::add);
+        assertEquals(tree.getIntervals(35), visited);
+
+        StringBuilder sb = new StringBuilder();
+        tree.query(5, 15, sb, (interval, builder) -> builder.append(interval.getData()).append(";"));
+        StringBuilder expected = new StringBuilder();
+        for (String data : tree.get(5, 15))
+            expected.append(data).append(";");
+        assertEquals(expected.toString(), sb.toString());
+
+        // a reused result list is appended to, not replaced
+        List<String> reused = new ArrayList<>();
+        tree.get(5, reused);
+        tree.get(35, reused);
+        List<String> appended = new ArrayList<>(tree.get(5));
+        appended.addAll(tree.get(35));
+        assertEquals(appended, reused);
+
+        reused.clear();
+        tree.get(11, 19, reused);
+        assertEquals(tree.get(11, 19), reused);
+    }
+
+    @Test
+    public void intervalTreeTest_ShortCircuitQueries() {
+        IntervalTree<Integer, String> tree = new IntervalTree<>(() -> 0);
+        tree.addInterval(0, 10, "0-10");
+        tree.addInterval(10, 20, "10-20");
+        tree.addInterval(20, 30, "20-30");
+        tree.addInterval(30, 40, "30-40");
+        tree.addInterval(0, 100, "0-100");
+
+        assertEquals(true, tree.containsAny(35));
+        assertEquals(false, tree.containsAny(135));
+        assertEquals(tree.get(35).get(0), tree.findFirst(35));
+        assertEquals(tree.getIntervals(10).get(0), tree.findFirstInterval(10));
+        assertEquals(null, tree.findFirst(-5));
+
+        assertEquals(3, tree.count(10));
+        assertEquals(0, tree.count(135));
+        assertEquals(tree.get(5, 25).size(), tree.count(5, 25));
+
+        assertEquals(tree.get(5, 25).subList(0, 2), tree.get(5, 25, 2));
+        assertEquals(tree.get(5, 25), tree.get(5, 25, 100));
+        assertEquals(0, tree.get(5, 25, 0).size());
+    }
+
+    @Test
+    public void intervalTreeTest_CountsMatchQueries() {
+        Random random = new Random(5);
+        IntervalTree<Integer, Integer> tree = new IntervalTree<>(() -> 0);
+        for (int i = 0; i < 1000; i++) {
+            int start = random.nextInt(10000);
+            tree.addInterval(start, start + random.nextInt(i % 10 == 0 ? 5000 : 50), i);
+        }
+
+        for (int i = 0; i < 500; i++) {
+            int point = random.nextInt(15000);
+            assertEquals(tree.get(point).size(), tree.count(point));
+            assertEquals(!tree.get(point).isEmpty(), tree.containsAny(point));
+            int end = point + random.nextInt(200);
+            assertEquals(tree.get(point, end).size(), tree.count(point, end));
+            List<Integer> all = tree.get(point, end);
+            assertEquals(all.subList(0, Math.min(3, all.size())), tree.get(point, end, 3));
+        }
+    }
+
+    @Test
+    public void intervalTreeTest_BatchedStabbing() {
+        Random random = new Random(9);
+        IntervalTree<Integer, Integer> tree = new IntervalTree<>(() -> 0);
+        for (int i = 0; i < 1000; i++) {
+            int start = random.nextInt(10000);
+            tree.addInterval(start, start + random.nextInt(i % 10 == 0 ? 5000 : 50), i);
+        }
+
+        List<Integer> points = new ArrayList<>();
+        for (int i = 0; i < 500; i++)
+            points.add(random.nextInt(16000) - 500);
+        points.add(points.get(0));
+
+        List<List<Integer>> batched = tree.getAll(points);
+        assertEquals(points.size(), batched.size());
+        for (int i = 0; i < points.size(); i++)
+            assertEquals(tree.get(points.get(i)), batched.get(i));
+
+        Collections.sort(points);
+        List<List<Interval<Integer, Integer>>> sortedBatch = tree.getAllIntervals(points);
+        for (int i = 0; i < points.size(); i++)
+            assertEquals(tree.getIntervals(points.get(i)), sortedBatch.get(i));
+
+        assertEquals(0, tree.getAll(new ArrayList<>()).size());
+    }
+
+    @Test
+    public void intervalTreeTest_BulkBuildMatchesMedianDefinition() {
+        Random random = new Random(12);
+        List<Interval<Integer, Integer>> intervals = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            // a narrow key range, so that many endpoints and whole intervals are duplicated
+            int start = random.nextInt(300);
+            intervals.add(new Interval<>(start, start + random.nextInt(i % 7 == 0 ? 200 : 10), i));
+        }
+
+        IntervalTree<Integer, Integer> tree = new IntervalTree<>(intervals, () -> 0);
+        assertTrue(tree.inSync());
+        assertEquals(intervals.size(), tree.get(0, 1000).size());
+
+        IntervalNode<Integer, Integer> head = new IntervalNode<>(intervals, () -> 0);
+        assertEquals(intervals.size(), checkNode(head, intervals));
+    }
+
+    @Test
+    public void intervalTreeTest_ParallelBuildEqualsSequentialBuild() {
+        Random random = new Random(13);
+        List<Interval<Long, Integer>> intervals = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            long start = random.nextInt(200000);
+            intervals.add(new Interval<>(start, start + random.nextInt(i % 50 == 0 ? 100000 : 100), i));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            IntervalNode<Long, Integer> sequential = new IntervalNode<>(intervals, () -> 0L);
+            IntervalNode<Long, Integer> parallel = new IntervalNode<>(intervals, () -> 0L, pool);
+            assertEquals(sequential, parallel);
+
+            IntervalTree<Long, Integer> tree = new IntervalTree<>(intervals, () -> 0L, pool);
+            tree.addInterval(5L, 10L, -1);
+            IntervalTree<Long, Integer> expected = new IntervalTree<>(intervals, () -> 0L);
+            expected.addInterval(5L, 10L, -1);
+            assertEquals(expected.get(7L), tree.get(7L));
+            assertEquals(expected.get(1000L, 2000L), tree.get(1000L, 2000L));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Check a node against the textbook construction over the same intervals, in insertion order
+     * @return the number of intervals in the subtree
+     */
+    @Test
+    public void intervalTreeTest_LazyStreams() {
+        Random random = new Random(20);
+        IntervalTree<Integer, Integer> tree = new IntervalTree<>(() -> 0);
+        for (int i = 0; i < 20000; i++) {
+            int start = random.nextInt(100000);
+            tree.addInterval(start, start + random.nextInt(i % 50 == 0 ? 50000 : 100), i);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            int point = random.nextInt(110000);
+            assertEquals(tree.getIntervals(point), tree.streamStab(point).collect(Collectors.toList()));
+            int end = point + random.nextInt(5000);
+            assertEquals(tree.getIntervals(point, end), tree.stream(point, end).collect(Collectors.toList()));
+            assertEquals(tree.getIntervals(point, end), tree.stream(point, end).parallel().collect(Collectors.toList()));
+            assertEquals(tree.get(point, end, 3), tree.stream(point, end).limit(3).map(Interval::getData).collect(Collectors.toList()));
+        }
+
+        AtomicInteger visited = new AtomicInteger();
+        assertTrue(tree.stream(0, 100000).peek(interval -> visited.incrementAndGet()).findFirst().isPresent());
+        assertEquals(1, visited.get());
+
+        Spliterator<Interval<Integer, Integer>> rest = tree.stream(0, 100000).spliterator();
+        Spliterator<Interval<Integer, Integer>> prefix = rest.trySplit();
+        List<Interval<Integer, Integer>> halves = new ArrayList<>();
+        prefix.forEachRemaining(halves::add);
+        int prefixSize = halves.size();
+        rest.forEachRemaining(halves::add);
+        assertTrue(prefixSize > 0 && prefixSize < halves.size());
+        assertEquals(tree.getIntervals(0, 100000), halves);
+
+        // ranges to one side of the root still split along the subtrees below it
+        IntervalTree<Integer, Integer> shortIntervals = new IntervalTree<>(() -> 0);
+        for (int i = 0; i < 20000; i++) {
+            int start = random.nextInt(100000);
+            shortIntervals.addInterval(start, start + random.nextInt(100), i);
+        }
+        int[][] ranges = { { 10, 30000 }, { 0, 5000 }, { 60000, 99999 }, { 95000, 110000 } };
+        for (int[] range : ranges) {
+            rest = shortIntervals.stream(range[0], range[1]).spliterator();
+            prefix = rest.trySplit();
+            assertTrue(prefix != null);
+            halves = new ArrayList<>();
+            prefix.forEachRemaining(halves::add);
+            rest.forEachRemaining(halves::add);
+            assertEquals(shortIntervals.getIntervals(range[0], range[1]), halves);
+        }
+    }
+
+    @Test
+    public void intervalTreeTest_JoinMatchesQueries() {
+        Random random = new Random(21);
+        IntervalTree<Long, Integer> sessions = new IntervalTree<>(() -> 0L);
+        IntervalTree<Long, String> windows = new IntervalTree<>(() -> 0L);
+        for (int i = 0; i < 30000; i++) {
+            long start = random.nextInt(1000000);
+            sessions.addInterval(start, start + random.nextInt(i % 100 == 0 ? 100000 : 200), i);
+        }
+        for (int i = 0; i < 20000; i++) {
+            long start = random.nextInt(1000000);
+            windows.addInterval(start, start + random.nextInt(i % 100 == 0 ? 50000 : 100), "window " + i);
+        }
+        windows.addInterval(5L, 5L, "point");
+        sessions.addInterval(5L, 10L, -1);
+
+        List<String> expected = new ArrayList<>();
+        for (Interval<Long, Integer> session : sessions.getIntervals(Long.MIN_VALUE, Long.MAX_VALUE)) {
+            for (Interval<Long, String> window : windows.getIntervals(session.getStart(), session.getEnd()))
+                expected.add(session.getData() + " " + window.getData());
+        }
+        Collections.sort(expected);
+
+        List<String> sequential = new ArrayList<>();
+        sessions.join(windows, (session, window) -> sequential.add(session.getData() + " " + window.getData()));
+        Collections.sort(sequential);
+        assertEquals(expected, sequential);
+
+        ConcurrentLinkedQueue<String> pairs = new ConcurrentLinkedQueue<>();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            sessions.join(windows, (session, window) -> pairs.add(session.getData() + " " + window.getData()), pool);
+        } finally {
+            pool.shutdown();
+        }
+        List<String> parallel = new ArrayList<>(pairs);
+        Collections.sort(parallel);
+        assertEquals(expected, parallel);
+    }
+
+    @Test
+    public void intervalTreeTest_AggregatesMatchBruteForce() {
+        Random random = new Random(22);
+        IntervalTree<Integer, Integer> tree = new IntervalTree<>(() -> 0);
+        assertEquals(0, tree.maxDepth(0, 10));
+        for (int i = 0; i < 300; i++) {
+            int start = random.nextInt(2000);
+            tree.addInterval(start, start + random.nextInt(i % 10 == 0 ? 300 : 20), i);
+        }
+        tree.addInterval(3000, 3000, -1);
+
+        for (int i = 0; i < 500; i++) {
+            int start = random.nextInt(3200) - 100;
+            int end = start + random.nextInt(i % 5 == 0 ? 1000 : 30);
+            assertEquals(tree.count(start, end), tree.overlapCount(start, end));
+
+            int maxDepth = 0;
+            for (int x = start; x <= end; x++)
+                maxDepth = Math.max(maxDepth, tree.count(x));
+            assertEquals(maxDepth, tree.maxDepth(start, end));
+
+            int covered = 0;
+            for (int x = start; x < end; x++) {
+                for (Interval<Integer, Integer> interval : tree.getIntervals(x)) {
+                    if (interval.getEnd() >= x + 1) {
+                        covered++;
+                        break;
+                    }
+                }
+            }
+            assertEquals(covered, tree.coveredLength(start, end), 1e-9);
+        }
+        assertEquals(1, tree.maxDepth(3000, 3000));
+        assertEquals(0.0, tree.coveredLength(3000, 3000), 0.0);
+
+        tree.addInterval(-50, -40, -2);
+        assertEquals(10.0, tree.coveredLength(-100, -30), 0.0);
+        assertEquals(1, tree.overlapCount(-45, -45));
+    }
+
+    @Test
+    public void intervalTreeTest_NearestIntervals() {
+        Random random = new Random(25);
+        IntervalTree<Integer, Integer> tree = new IntervalTree<>(() -> 0);
+        assertNull(tree.floorInterval(5));
+        assertTrue(tree.nearest(5, 3).isEmpty());
+        List<Interval<Integer, Integer>> intervals = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int start = random.nextInt(20000);
+            Interval<Integer, Integer> interval = new Interval<>(start, start + random.nextInt(i % 25 == 0 ? 500 : 20), i);
+            intervals.add(interval);
+            tree.addInterval(interval);
+        }
+
+        for (int i = 0; i < 500; i++) {
+            int value = random.nextInt(21000) - 500;
+            Interval<Integer, Integer> floor = null;
+            Interval<Integer, Integer> ceiling = null;
+            List<Integer> distances = new ArrayList<>();
+            for (Interval<Integer, Integer> interval : intervals) {
+                if (interval.getStart() <= value && (floor == null || interval.getEnd() > floor.getEnd()
+                        || (interval.getEnd().equals(floor.getEnd()) && interval.getStart() > floor.getStart())))
+                    floor = interval;
+                if (interval.getEnd() >= value && (ceiling == null || interval.getStart() < ceiling.getStart()
+                        || (interval.getStart().equals(ceiling.getStart()) && interval.getEnd() < ceiling.getEnd())))
+                    ceiling = interval;
+                distances.add(Math.max(0, Math.max(interval.getStart() - value, value - interval.getEnd())));
+            }
+            Interval<Integer, Integer> foundFloor = tree.floorInterval(value);
+            if (floor == null) {
+                assertNull(foundFloor);
+            } else {
+                assertEquals(floor.getStart(), foundFloor.getStart());
+                assertEquals(floor.getEnd(), foundFloor.getEnd());
+            }
+            Interval<Integer, Integer> foundCeiling = tree.ceilingInterval(value);
+            if (ceiling == null) {
+                assertNull(foundCeiling);
+            } else {
+                assertEquals(ceiling.getStart(), foundCeiling.getStart());
+                assertEquals(ceiling.getEnd(), foundCeiling.getEnd());
+            }
+
+            int k = 1 + random.nextInt(10);
+            Collections.sort(distances);
+            List<Integer> found = new ArrayList<>();
+            for (Interval<Integer, Integer> interval : tree.nearest(value, k))
+                found.add(Math.max(0, Math.max(interval.getStart() - value, value - interval.getEnd())));
+            assertEquals(distances.subList(0, k), found);
+        }
+    }
+
+    private static int checkNode(IntervalNode<Integer, Integer> node, List<Interval<Integer, Integer>> intervals) {
+        TreeSet<Integer> endpoints = new TreeSet<>();
+        for (Interval<Integer, Integer> interval : intervals) {
+            endpoints.add(interval.getStart());
+            endpoints.add(interval.getEnd());
+        }
+        Integer center = new ArrayList<>(endpoints).get(endpoints.size() / 2);
+        assertEquals(center, node.getCenter());
+
+        List<Interval<Integer, Integer>> left = new ArrayList<>();
+        List<Interval<Integer, Integer>> right = new ArrayList<>();
+        List<Interval<Integer, Integer>> mine = new ArrayList<>();
+        for (Interval<Integer, Integer> interval : intervals) {
+            if (interval.getEnd() < center)
+                left.add(interval);
+            else if (interval.getStart() > center)
+                right.add(interval);
+            else
+                mine.add(interval);
+        }
+        Collections.sort(mine);
+        assertEquals(mine, node.getIntervals());
+
+        int count = mine.size();
+        if (left.isEmpty())
+            assertNull(node.getLeft());
+        else
+            count += checkNode(node.getLeft(), left);
+        if (right.isEmpty())
+            assertNull(node.getRight());
+        else
+            count += checkNode(node.getRight(), right);
+        return count;
+    }
 }
@@ -0,0 +1,116 @@
+package intervalTree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class LongIntervalTreeTest {
+    @Test
+    public void longIntervalTreeTest_StabAndRange() {
+        LongIntervalTree<String> tree = new LongIntervalTree<>();
+        tree.addInterval(0, 10, "0-10");
+        tree.addInterval(new LongInterval<>(10, 20, "10-20"));
+        tree.addInterval(20, 30, "20-30");
+        tree.addInterval(30, 40, "30-40");
+        tree.addInterval(-20, 0, "-20 to 0");
+
+        assertEquals("0-10", tree.get(5).get(0));
+        assertEquals("0-10", tree.get(5, 6).get(0));
+        assertEquals(new LongInterval<>(0L, 10L, "0-10"), tree.getIntervals(5).get(0));
+        assertEquals(new LongInterval<>(0L, 10L, "0-10"), tree.getIntervals(5, 6).get(0));
+        assertEquals("20-30", tree.get(25).get(0));
+        assertEquals("-20 to 0", tree.get(-15).get(0));
+
+        tree.addInterval(0, 100, "0-100");
+
+        List<String> expected = new ArrayList<>();
+        expected.add("0-100");
+        expected.add("30-40");
+        assertEquals(expected, tree.get(35));
+        assertTrue(tree.get(135).isEmpty());
+    }
+
+    @Test
+    public void longIntervalTreeTest_EndpointsBeyondIntegerRange() {
+        LongIntervalTree<String> tree = new LongIntervalTree<>();
+        tree.addInterval(Long.MIN_VALUE, 0L, "negative");
+        tree.addInterval(1L << 40, Long.MAX_VALUE, "huge");
+
+        assertEquals("negative", tree.get(Long.MIN_VALUE).get(0));
+        assertEquals("huge", tree.get(Long.MAX_VALUE).get(0));
+        assertTrue(tree.get(1L).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void longIntervalTreeTest_InvertedRange_ThrowsIllegalArgument() {
+        LongIntervalTree<String> tree = new LongIntervalTree<>();
+        tree.addInterval(20, 10, "20 to 10");
+    }
+
+    @Test
+    public void longIntervalTreeTest_MatchesGenericTree() {
+        Random random = new Random(42);
+        IntervalTree<Long, Integer> generic = new IntervalTree<>(() -> 0L);
+        List<LongInterval<Integer>> intervals = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long start = random.nextInt(100000);
+            long end = start + random.nextInt(500);
+            generic.addInterval(start, end, i);
+            intervals.add(new LongInterval<>(start, end, i));
+        }
+        LongIntervalTree<Integer> tree = new LongIntervalTree<>(intervals);
+
+        for (int i = 0; i < 2000; i++) {
+            long point = random.nextInt(101000) - 500;
+            assertEquals(sorted(generic.get(point)), sorted(tree.get(point)));
+            long end = point + random.nextInt(1000);
+            assertEquals(sorted(generic.get(point, end)), sorted(tree.get(point, end)));
+        }
+    }
+
+    private static List<Integer> sorted(List<Integer> list) {
+        List<Integer> copy = new ArrayList<>(list);
+        Collections.sort(copy);
+        return copy;
+    }
+
+    @Test
+    public void longIntervalTreeTest_DictionaryEncodedPayloads() {
+        Random random = new Random(23);
+        LongIntervalTree<String> plain = new LongIntervalTree<>();
+        LongIntervalTree<String> encoded = new LongIntervalTree<>();
+        encoded.setDictionaryEncoded(true);
+        for (int i = 0; i < 120000; i++) {
+            long start = random.nextInt(1000000);
+            long end = start + random.nextInt(100);
+            // a few hundred distinct payloads at first, then enough to need int ordinals
+            String data = i < 50000 ? "country " + random.nextInt(i < 20000 ? 250 : 1000) : "range " + i;
+            plain.addInterval(start, end, data);
+            encoded.addInterval(start, end, data);
+            if (i == 19999) {
+                assertEquals(250, encoded.dictionarySize());
+                assertEquals(plain.get(start), encoded.get(start));
+            }
+        }
+        assertTrue(encoded.isDictionaryEncoded());
+        assertEquals(-1, plain.dictionarySize());
+        assertTrue(encoded.dictionarySize() > 1 << 16);
+        assertEquals(plain, encoded);
+
+        for (int i = 0; i < 1000; i++) {
+            long point = random.nextInt(1000000);
+            assertEquals(plain.get(point), encoded.get(point));
+            assertEquals(plain.getIntervals(point, point + 50), encoded.getIntervals(point, point + 50));
+        }
+
+        plain.setDictionaryEncoded(true);
+        encoded.setDictionaryEncoded(false);
+        assertEquals(encoded.get(500000L), plain.get(500000L));
+        assertEquals(-1, encoded.dictionarySize());
+    }
+}
@@ -0,0 +1,107 @@
+package intervalTree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.function.Function;
+
+public class MappedIntervalTreeTest {
+    private static final Function<String, byte[]> ENCODER = s -> s.getBytes(StandardCharsets.UTF_8);
+    private static final Function<ByteBuffer, String> DECODER = b -> StandardCharsets.UTF_8.decode(b).toString();
+
+    @Test
+    public void mappedIntervalTreeTest_MatchesFrozenTree() throws IOException {
+        Random random = new Random(14);
+        IntervalTree<Integer, String> tree = new IntervalTree<>(() -> 0);
+        for (int i = 0; i < 2000; i++) {
+            int start = random.nextInt(20000) - 10000;
+            tree.addInterval(start, start + random.nextInt(i % 10 == 0 ? 5000 : 50), "interval " + i);
+        }
+        FrozenIntervalTree<Integer, String> frozen = tree.freeze();
+
+        Path file = Files.createTempFile("intervals", ".bin");
+        try {
+            frozen.write(file, ENCODER);
+            MappedIntervalTree<Integer, String> mapped = new MappedIntervalTree<>(file, DECODER);
+
+            assertEquals(frozen.size(), mapped.size());
+            assertEquals(frozen.nodeCount(), mapped.nodeCount());
+            for (int i = 0; i < 1000; i++) {
+                int point = random.nextInt(26000) - 13000;
+                assertEquals(frozen.get(point), mapped.get(point));
+                int end = point + random.nextInt(200);
+                assertEquals(frozen.get(point, end), mapped.get(point, end));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void mappedIntervalTreeTest_DoubleKeys() throws IOException {
+        IntervalTree<Double, String> tree = new IntervalTree<>(() -> 0.0);
+        tree.addInterval(-2.5, -0.5, "negative");
+        tree.addInterval(-0.75, 0.25, "around zero");
+        tree.addInterval(1e300, Double.POSITIVE_INFINITY, "huge");
+
+        Path file = Files.createTempFile("intervals", ".bin");
+        try {
+            tree.freeze().write(file, ENCODER);
+            MappedIntervalTree<Double, String> mapped = new MappedIntervalTree<>(file, DECODER);
+
+            assertEquals(tree.get(-0.6), mapped.get(-0.6));
+            assertEquals("around zero", mapped.get(0.0).get(0));
+            assertEquals("huge", mapped.get(Double.MAX_VALUE).get(0));
+            assertTrue(mapped.get(0.5).isEmpty());
+            assertEquals(tree.get(-3.0, 0.0), mapped.get(-3.0, 0.0));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void mappedIntervalTreeTest_EmptyTree() throws IOException {
+        Path file = Files.createTempFile("intervals", ".bin");
+        try {
+            new IntervalTree<Long, String>(() -> 0L).freeze().write(file, ENCODER);
+            MappedIntervalTree<Long, String> mapped = new MappedIntervalTree<>(file, DECODER);
+
+            assertEquals(0, mapped.size());
+            assertTrue(mapped.get(5L).isEmpty());
+            assertTrue(mapped.get(5L, 10L).isEmpty());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void mappedIntervalTreeTest_NotASnapshot_ThrowsIOException() throws IOException {
+        Path file = Files.createTempFile("intervals", ".csv");
+        try {
+            Files.write(file, "0,10,first\n10,20,second\n20,30,third\n".getBytes(StandardCharsets.UTF_8));
+            new MappedIntervalTree<Integer, String>(file, DECODER);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mappedIntervalTreeTest_UnsupportedKeyType_ThrowsIllegalArgument() throws IOException {
+        IntervalTree<BigInteger, String> tree = new IntervalTree<>(() -> BigInteger.ZERO);
+        tree.addInterval(BigInteger.ZERO, BigInteger.TEN, "0-10");
+        Path file = Files.createTempFile("intervals", ".bin");
+        try {
+            tree.freeze().write(file, ENCODER);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package intervalTree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class OffHeapIntervalTreeTest {
+    @Test
+    public void offHeapIntervalTreeTest_MatchesIntervalTree() {
+        Random random = new Random(15);
+        List<Interval<Long, String>> intervals = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            long start = random.nextInt(100000) - 50000;
+            // only a handful of distinct payloads, as in a table of country codes
+            intervals.add(new Interval<>(start, start + random.nextInt(i % 10 == 0 ? 20000 : 100), "code " + (i % 7)));
+        }
+        IntervalTree<Long, String> tree = new IntervalTree<>(intervals, () -> 0L);
+
+        try (OffHeapIntervalTree<Long, String> offHeap = new OffHeapIntervalTree<>(intervals, () -> 0L)) {
+            assertEquals(intervals.size(), offHeap.size());
+            assertEquals(7, offHeap.dictionarySize());
+            assertTrue(offHeap.offHeapBytes() > 20L * intervals.size());
+            for (int i = 0; i < 1000; i++) {
+                long point = random.nextInt(130000) - 65000;
+                assertEquals(tree.get(point), offHeap.get(point));
+                long end = point + random.nextInt(500);
+                assertEquals(tree.get(point, end), offHeap.get(point, end));
+            }
+        }
+    }
+
+    @Test
+    public void offHeapIntervalTreeTest_DoubleKeys() {
+        IntervalTree<Double, String> tree = new IntervalTree<>(() -> 0.0);
+        tree.addInterval(-10.5, -1.0, "negative");
+        tree.addInterval(-0.5, 0.5, "around zero");
+        tree.addInterval(0.25, 99.75, "positive");
+
+        try (OffHeapIntervalTree<Double, String> offHeap = new OffHeapIntervalTree<>(tree)) {
+            assertEquals(tree.get(0.3), offHeap.get(0.3));
+            assertEquals("negative", offHeap.get(-2.0).get(0));
+            assertTrue(offHeap.get(-0.75).isEmpty());
+            assertEquals(tree.get(-5.0, 0.0), offHeap.get(-5.0, 0.0));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void offHeapIntervalTreeTest_QueryAfterClose_ThrowsIllegalState() {
+        IntervalTree<Integer, String> tree = new IntervalTree<>(() -> 0);
+        tree.addInterval(0, 10, "0-10");
+        OffHeapIntervalTree<Integer, String> offHeap = new OffHeapIntervalTree<>(tree);
+        assertEquals("0-10", offHeap.get(5).get(0));
+        assertFalse(offHeap.isClosed());
+        assertFalse(offHeap.isReleased());
+
+        offHeap.close();
+        offHeap.close();
+        assertTrue(offHeap.isClosed());
+        assertTrue(offHeap.isReleased());
+        offHeap.get(5);
+    }
+
+    @Test
+    public void offHeapIntervalTreeTest_CloseWhileQuerying() throws Exception {
+        List<Interval<Long, Integer>> intervals = new ArrayList<>();
+        for (int i = 0; i < 100000; i++)
+            intervals.add(new Interval<>((long) i, i + 1000L, i % 13));
+        OffHeapIntervalTree<Long, Integer> offHeap = new OffHeapIntervalTree<>(intervals, () -> 0L);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                long seed = t;
+                readers.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    int answered = 0;
+                    try {
+                        while (true) {
+                            long point = random.nextInt(100000);
+                            assertEquals(Math.min(point, 1000) + 1, offHeap.get(point).size());
+                            answered++;
+                        }
+                    } catch (IllegalStateException closed) {
+                        return answered;
+                    }
+                }));
+            }
+            Thread.sleep(50);
+            offHeap.close();
+            for (Future<Integer> reader : readers)
+                assertTrue(reader.get() >= 0);
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(offHeap.isReleased());
+    }
+}
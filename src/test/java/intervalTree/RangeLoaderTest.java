@@ -0,0 +1,94 @@
+package intervalTree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+public class RangeLoaderTest {
+    private static InputStream text(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void rangeLoaderTest_ParsesLines() throws IOException {
+        RangeLoader<String> loader = new RangeLoader<>(s -> s);
+        loader.setSkipLines(1);
+        LongIntervalTree<String> tree = loader.load(text("start,end,country\r\n"
+                + "16777216,16777471,AU\r\n"
+                + "\r\n"
+                + "# a comment\n"
+                + "\"16777472\", \"16778239\",\"CN\"\n"
+                + "-9223372036854775808,-1\n"
+                + "0,9223372036854775807,everything, and more"));
+
+        assertEquals(4, tree.listSize());
+        assertEquals(Arrays.asList("everything, and more", "AU"), tree.get(16777300));
+        assertEquals(Arrays.asList("everything, and more", "\"CN\""), tree.get(16777472));
+        assertEquals(Arrays.asList(""), tree.get(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void rangeLoaderTest_MatchesTreeBuiltFromIntervals() throws IOException {
+        Random random = new Random(19);
+        StringBuilder text = new StringBuilder();
+        LongIntervalTree<String> expected = new LongIntervalTree<>();
+        long start = 0;
+        for (int i = 0; i < 50000; i++) {
+            start += random.nextInt(1000);
+            long end = start + random.nextInt(i % 100 == 0 ? 100000 : 500);
+            text.append(start).append('\t').append(end).append('\t').append("range ").append(i).append('\n');
+            expected.addInterval(start, end, "range " + i);
+        }
+
+        Path file = Files.createTempFile("ranges", ".tsv");
+        try {
+            Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+            RangeLoader<String> loader = new RangeLoader<>(String::intern);
+            loader.setSeparator('\t');
+            loader.setChunkSize(1000);
+            LongIntervalTree<String> tree = loader.load(file);
+
+            assertTrue(tree.inSync());
+            assertEquals(expected.listSize(), tree.currentSize());
+            // sized from the file, so little room is left over
+            assertTrue(tree.capacity() <= tree.listSize() + tree.listSize() / 8);
+            for (int i = 0; i < 1000; i++) {
+                long point = random.nextInt(30000000);
+                assertEquals(expected.get(point), tree.get(point));
+                assertEquals(expected.get(point, point + 1000), tree.get(point, point + 1000));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void rangeLoaderTest_ReportsMalformedLines() {
+        RangeLoader<String> loader = new RangeLoader<>(s -> s);
+        String[] malformed = {
+                "1,2,a\n3;4,b\n",
+                "1,2,a\n\n5,4,b\n",
+                "1,2,a\nx,4,b\n",
+                "1,2,a\n\"1,2,b\n",
+                "1,2,a\n1,9223372036854775808,b\n"
+        };
+        for (String text : malformed) {
+            try {
+                loader.load(text(text));
+                fail("loaded " + text);
+            } catch (IOException e) {
+                assertTrue(e.getMessage(), e.getMessage().endsWith("line " + (text.contains("\n\n") ? 3 : 2)));
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package intervalTree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ShardedIntervalTreeTest {
+    private static <T extends Comparable<T>> List<T> sorted(List<T> list) {
+        List<T> copy = new ArrayList<>(list);
+        Collections.sort(copy);
+        return copy;
+    }
+
+    @Test
+    public void shardedIntervalTreeTest_MatchesUnshardedTree() {
+        Random random = new Random(24);
+        List<Integer> boundaries = new ArrayList<>();
+        for (int i = 1; i < 16; i++)
+            boundaries.add(i * 1000);
+        List<Interval<Integer, Integer>> intervals = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            int start = random.nextInt(18000) - 1000;
+            intervals.add(new Interval<>(start, start + random.nextInt(i % 20 == 0 ? 5000 : 300), i));
+        }
+        IntervalTree<Integer, Integer> expected = new IntervalTree<>(intervals, () -> 0);
+        ShardedIntervalTree<Integer, Integer> tree = new ShardedIntervalTree<>(boundaries, intervals, () -> 0);
+        assertEquals(16, tree.shardCount());
+        assertTrue(tree.inSync());
+        assertEquals(5000, tree.listSize());
+
+        for (int i = 0; i < 1000; i++) {
+            int point = random.nextInt(20000) - 2000;
+            assertEquals(sorted(expected.get(point)), sorted(tree.get(point)));
+            int end = point + random.nextInt(i % 10 == 0 ? 8000 : 500);
+            assertEquals(sorted(expected.get(point, end)), sorted(tree.get(point, end)));
+        }
+        assertEquals(sorted(expected.get(1000)), sorted(tree.get(1000)));
+        assertEquals(sorted(expected.get(999, 1000)), sorted(tree.get(999, 1000)));
+    }
+
+    @Test
+    public void shardedIntervalTreeTest_OnlyTouchedShardsRebuild() {
+        ShardedIntervalTree<Long, String> tree = new ShardedIntervalTree<>(Arrays.asList(100L, 200L, 300L), () -> 0L);
+        tree.addInterval(10L, 20L, "first");
+        tree.addInterval(150L, 250L, "crossing");
+        tree.addInterval(350L, 400L, "last");
+        tree.build();
+
+        tree.addInterval(110L, 120L, "second");
+        assertEquals(1, tree.dirtyShards());
+        assertEquals(Arrays.asList("crossing"), tree.get(220L));
+        assertEquals(1, tree.dirtyShards());
+        assertEquals(Arrays.asList("crossing", "first", "last", "second"), sorted(tree.get(0L, 1000L)));
+        assertTrue(tree.inSync());
+
+        assertTrue(tree.removeInterval(new Interval<>(150L, 250L, "crossing")));
+        assertFalse(tree.removeInterval(new Interval<>(150L, 250L, "crossing")));
+        assertEquals(2, tree.dirtyShards());
+        assertEquals(3, tree.listSize());
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            tree.setBuildPool(pool);
+            tree.build();
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(tree.inSync());
+        assertTrue(tree.get(220L).isEmpty());
+        assertEquals(Arrays.asList("first", "last", "second"), sorted(tree.get(0L, 1000L)));
+    }
+}
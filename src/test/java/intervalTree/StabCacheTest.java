@@ -0,0 +1,136 @@
+package intervalTree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class StabCacheTest {
+    @Test
+    public void stabCacheTest_HitsAndInvalidation() {
+        IntervalTree<Integer, String> tree = new IntervalTree<>(() -> 0);
+        tree.addInterval(0, 10, "0-10");
+        tree.addInterval(5, 15, "5-15");
+        StabCache<Integer, String> cache = new StabCache<>(100);
+        tree.setCache(cache);
+
+        assertEquals(Arrays.asList("0-10", "5-15"), tree.get(7));
+        assertEquals(Arrays.asList("0-10", "5-15"), tree.get(7));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        tree.addInterval(6, 8, "6-8");
+        assertEquals(3, tree.get(7).size());
+        assertEquals(2, cache.getMisses());
+
+        assertTrue(tree.removeInterval(new Interval<>(0, 10, "0-10")));
+        assertEquals(Arrays.asList("5-15", "6-8"), tree.get(7));
+        assertEquals(3, cache.getMisses());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void stabCacheTest_ServesOneTreeAtATime() {
+        IntervalTree<Integer, String> first = new IntervalTree<>(() -> 0);
+        first.addInterval(0, 10, "first");
+        IntervalTree<Integer, String> second = new IntervalTree<>(() -> 0);
+        second.addInterval(0, 10, "second");
+        StabCache<Integer, String> cache = new StabCache<>(100);
+        first.setCache(cache);
+        first.setCache(cache);
+        assertEquals(Arrays.asList("first"), first.get(5));
+
+        try {
+            second.setCache(cache);
+            fail("a cache attached to one tree must not be attached to another");
+        } catch (IllegalStateException expected) {
+            assertNull(second.getCache());
+        }
+
+        // once detached, the cache starts over for the next tree
+        first.setCache(null);
+        second.setCache(cache);
+        assertEquals(0, cache.size());
+        assertEquals(Arrays.asList("second"), second.get(5));
+        assertEquals(Arrays.asList("second"), second.get(5));
+
+        ConcurrentIntervalTree<Integer, String> concurrent = new ConcurrentIntervalTree<>(() -> 0);
+        try {
+            concurrent.setCache(cache);
+            fail("a cache attached to one tree must not be attached to another");
+        } catch (IllegalStateException expected) {
+            assertNull(concurrent.getCache());
+        }
+    }
+
+    @Test
+    public void stabCacheTest_EvictsLeastRecentlyUsed() {
+        IntervalTree<Integer, Integer> tree = new IntervalTree<>(() -> 0);
+        for (int i = 0; i < 100; i++)
+            tree.addInterval(i, i, i);
+        StabCache<Integer, Integer> cache = new StabCache<>(10);
+        tree.setCache(cache);
+
+        for (int i = 0; i < 10; i++)
+            tree.get(i);
+        tree.get(0);
+        tree.get(50);
+        assertEquals(10, cache.size());
+        assertEquals(1, cache.getEvictions());
+
+        tree.get(0);
+        assertEquals(2, cache.getHits());
+        tree.get(1);
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    public void stabCacheTest_ConcurrentReadersMatchUncachedTree() throws Exception {
+        Random random = new Random(18);
+        List<Interval<Integer, Integer>> intervals = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int start = random.nextInt(10000);
+            intervals.add(new Interval<>(start, start + random.nextInt(200), i));
+        }
+        IntervalTree<Integer, Integer> expected = new IntervalTree<>(intervals, () -> 0);
+        ConcurrentIntervalTree<Integer, Integer> tree = new ConcurrentIntervalTree<>(intervals, () -> 0);
+        StabCache<Integer, Integer> cache = new StabCache<>(256);
+        tree.setCache(cache);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                long seed = t;
+                results.add(executor.submit(() -> {
+                    Random keys = new Random(seed);
+                    for (int i = 0; i < 20000; i++) {
+                        int key = keys.nextInt(500) * 20;
+                        if (!expected.get(key).equals(tree.get(key)))
+                            return false;
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results)
+                assertTrue(result.get());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(80000, cache.getHits() + cache.getMisses());
+        assertTrue(cache.getHitRate() > 0.5);
+
+        tree.addInterval(100, 100, -1);
+        tree.publish();
+        assertTrue(tree.get(100).contains(-1));
+    }
+}
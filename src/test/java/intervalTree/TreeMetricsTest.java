@@ -0,0 +1,80 @@
+package intervalTree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TreeMetricsTest {
+    @Test
+    public void treeMetricsTest_CountsQueriesAndRebuilds() {
+        Random random = new Random(17);
+        IntervalTree<Integer, Integer> tree = new IntervalTree<>(() -> 0);
+        for (int i = 0; i < 1000; i++) {
+            int start = random.nextInt(10000);
+            tree.addInterval(start, start + random.nextInt(i % 20 == 0 ? 5000 : 50), i);
+        }
+        TreeMetrics metrics = new TreeMetrics();
+        tree.setMetrics(metrics);
+
+        long returned = 0;
+        for (int i = 0; i < 100; i++) {
+            int point = random.nextInt(12000);
+            returned += tree.get(point).size();
+            returned += tree.get(point, point + 100).size();
+        }
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(200, snapshot.getQueries());
+        assertEquals(returned, snapshot.getIntervalsReturned());
+        assertTrue(snapshot.getIntervalsScanned() >= snapshot.getIntervalsReturned());
+        assertTrue(snapshot.getNodeVisits() >= snapshot.getQueries());
+
+        long histogramTotal = 0;
+        for (long queries : snapshot.getScannedHistogram())
+            histogramTotal += queries;
+        assertEquals(200, histogramTotal);
+
+        assertEquals(1, snapshot.getRebuilds());
+        assertTrue(snapshot.getRebuildNanos() > 0);
+        long nodes = 0;
+        for (long atDepth : snapshot.getDepthHistogram())
+            nodes += atDepth;
+        assertEquals(snapshot.getNodeCount(), nodes);
+        assertEquals(1, snapshot.getDepthHistogram()[0]);
+        assertTrue(snapshot.getMaxIntervalsPerNode() > 0);
+    }
+
+    @Test
+    public void treeMetricsTest_NothingRecordedWhenDetached() {
+        IntervalTree<Integer, String> tree = new IntervalTree<>(() -> 0);
+        tree.addInterval(0, 10, "0-10");
+        TreeMetrics metrics = new TreeMetrics();
+        tree.setMetrics(metrics);
+        tree.get(5);
+        tree.setMetrics(null);
+        tree.get(5);
+        tree.get(0, 20);
+
+        assertEquals(1, metrics.snapshot().getQueries());
+        assertEquals(1, metrics.snapshot().getIntervalsReturned());
+    }
+
+    @Test
+    public void treeMetricsTest_ConcurrentTreeRecordsPublishes() {
+        ConcurrentIntervalTree<Integer, String> tree = new ConcurrentIntervalTree<>(() -> 0);
+        TreeMetrics metrics = new TreeMetrics();
+        tree.setMetrics(metrics);
+        tree.addInterval(0, 10, "0-10");
+        tree.addInterval(5, 15, "5-15");
+        tree.publish();
+
+        assertEquals(2, tree.getIntervals(7).size());
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getRebuilds());
+        assertEquals(1, snapshot.getQueries());
+        assertEquals(2, snapshot.getIntervalsReturned());
+        assertEquals(2, snapshot.getMaxIntervalsPerNode());
+    }
+}
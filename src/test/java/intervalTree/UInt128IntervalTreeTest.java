@@ -0,0 +1,92 @@
+package intervalTree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class UInt128IntervalTreeTest {
+    @Test
+    public void uint128IntervalTreeTest_InetAddressRanges() throws Exception {
+        UInt128IntervalTree<String> tree = new UInt128IntervalTree<>();
+        tree.addInterval(InetAddress.getByName("2001:db8::"), InetAddress.getByName("2001:db8::ffff"), "documentation");
+        tree.addInterval(InetAddress.getByName("fe80::"), InetAddress.getByName("febf:ffff:ffff:ffff:ffff:ffff:ffff:ffff"), "link-local");
+        tree.addInterval(InetAddress.getByName("10.0.0.0"), InetAddress.getByName("10.255.255.255"), "private");
+
+        assertEquals("documentation", tree.get(InetAddress.getByName("2001:db8::1234")).get(0));
+        assertEquals("link-local", tree.get(InetAddress.getByName("fe80::1")).get(0));
+        assertEquals("private", tree.get(InetAddress.getByName("10.1.2.3")).get(0));
+        assertEquals("private", tree.get(InetAddress.getByName("::ffff:10.1.2.3")).get(0));
+        assertTrue(tree.get(InetAddress.getByName("11.0.0.0")).isEmpty());
+        assertTrue(tree.get(InetAddress.getByName("::1")).isEmpty());
+
+        assertEquals(2, tree.get(InetAddress.getByName("2001:db8::"), InetAddress.getByName("fe80::")).size());
+    }
+
+    @Test
+    public void uint128IntervalTreeTest_HighBitsCompareUnsigned() {
+        UInt128IntervalTree<String> tree = new UInt128IntervalTree<>();
+        tree.addInterval(0L, 0L, 0L, -1L, "low half");
+        tree.addInterval(Long.MIN_VALUE, 0L, -1L, -1L, "top half");
+
+        assertEquals("low half", tree.get(0L, Long.MIN_VALUE).get(0));
+        assertEquals("top half", tree.get(-1L, -1L).get(0));
+        assertTrue(tree.get(Long.MAX_VALUE, 0L).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void uint128IntervalTreeTest_InvertedRange_ThrowsIllegalArgument() {
+        UInt128IntervalTree<String> tree = new UInt128IntervalTree<>();
+        tree.addInterval(-1L, 0L, 1L, 0L, "inverted");
+    }
+
+    @Test
+    public void uint128IntervalTreeTest_MatchesBigIntegerTree() {
+        Random random = new Random(42);
+        IntervalTree<BigInteger, Integer> generic = new IntervalTree<>(() -> BigInteger.ZERO);
+        UInt128IntervalTree<Integer> tree = new UInt128IntervalTree<>();
+        long[] highs = {0L, 1L, Long.MAX_VALUE, Long.MIN_VALUE, -1L};
+        for (int i = 0; i < 2000; i++) {
+            long high = highs[random.nextInt(highs.length)];
+            long low = random.nextLong();
+            long endLow = low + random.nextInt(1 << 20);
+            long endHigh = Long.compareUnsigned(endLow, low) < 0 ? high + 1 : high;
+            if (Long.compareUnsigned(endHigh, high) < 0) {
+                endHigh = high;
+                endLow = -1L;
+            }
+            generic.addInterval(toBigInteger(high, low), toBigInteger(endHigh, endLow), i);
+            tree.addInterval(high, low, endHigh, endLow, i);
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            long high = highs[random.nextInt(highs.length)];
+            long low = random.nextLong();
+            assertEquals(sorted(generic.get(toBigInteger(high, low))), sorted(tree.get(high, low)));
+            long endLow = low + random.nextInt(1 << 24);
+            long endHigh = Long.compareUnsigned(endLow, low) < 0 ? high + 1 : high;
+            if (Long.compareUnsigned(endHigh, high) < 0) {
+                endHigh = high;
+                endLow = -1L;
+            }
+            assertEquals(sorted(generic.get(toBigInteger(high, low), toBigInteger(endHigh, endLow))),
+                    sorted(tree.get(high, low, endHigh, endLow)));
+        }
+    }
+
+    private static BigInteger toBigInteger(long high, long low) {
+        return new BigInteger(UInt128IntervalTree.toString(high, low));
+    }
+
+    private static List<Integer> sorted(List<Integer> list) {
+        List<Integer> copy = new ArrayList<>(list);
+        Collections.sort(copy);
+        return copy;
+    }
+}